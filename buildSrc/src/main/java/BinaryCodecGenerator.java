@@ -0,0 +1,269 @@
+package io.bokun.octo.gradle;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Generates a binary codec for every DTO & enum registered by {@link GenerateDTOsTask}, on top of the hand-written
+ * io.bokun.octo.binary runtime, plus the OctoBinaryCodecs registry holding the schema version
+ */
+class BinaryCodecGenerator {
+    static final String PACKAGE = "binary";
+
+    /**
+     * Types written inline through a BinaryOutput/BinaryInput method, value: constant in ScalarCodecs for lists
+     */
+    private static final Map<String, String> SCALAR_TYPES = Map.of(
+            "String", "STRING",
+            "Boolean", "BOOLEAN",
+            "Integer", "INTEGER",
+            "UUID", "UUID",
+            "URL", "URL",
+            "URI", "URI",
+            "LocalDate", "LOCAL_DATE",
+            "ZonedDateTime", "ZONED_DATE_TIME"
+    );
+
+    private final GenerateDTOsTask task;
+
+    BinaryCodecGenerator(GenerateDTOsTask task) {
+        this.task = task;
+    }
+
+    void generate() {
+        for (var dto : task.classes.values()) {
+            createRecordCodec(dto);
+        }
+        for (var entry : task.enums.entrySet()) {
+            createEnumCodec(entry.getKey());
+        }
+        createRegistry();
+    }
+
+    /**
+     * The codec instance for the type, e.g. ScalarCodecs.STRING or UnitBinaryCodec.INSTANCE
+     */
+    private static String codec(GenerateDTOsTask.Type type) {
+        var scalar = SCALAR_TYPES.get(type.type);
+        return scalar != null ? "ScalarCodecs." + scalar : type.type + "BinaryCodec.INSTANCE";
+    }
+
+    /**
+     * Suffix of the BinaryOutput/BinaryInput methods for a scalar type, e.g. UUID -> writeUuid & readUuid
+     */
+    private static String scalarMethod(String type) {
+        return type.equals(type.toUpperCase()) ? GenerateDTOsTask.capitalize(type.toLowerCase()) : type;
+    }
+
+    private String readExpression(GenerateDTOsTask.Type type) {
+        if (type.element != null) {
+            var method = task.listType.equals("List") ? "readCompactList" : "readList";
+            return "in." + method + "(" + codec(type.element) + ")";
+        }
+        if (SCALAR_TYPES.containsKey(type.type)) {
+            return "in.read" + scalarMethod(type.type) + "()";
+        }
+        return codec(type) + ".read(in)";
+    }
+
+    private static String writeStatement(GenerateDTOsTask.Type type, String value) {
+        if (type.element != null) {
+            return "out.writeList(" + value + ", " + codec(type.element) + ");";
+        }
+        if (SCALAR_TYPES.containsKey(type.type)) {
+            return "out.write" + scalarMethod(type.type) + "(" + value + ");";
+        }
+        return codec(type) + ".write(out, " + value + ");";
+    }
+
+    /**
+     * Creates a codec writing the presence bitmap of the record's fields, then the non-null fields in order
+     */
+    private void createRecordCodec(GenerateDTOsTask.DtoClass dto) {
+        var format = """
+                package io.bokun.octo.binary;
+
+                import java.net.URI;
+                import java.net.URL;
+                import java.time.LocalDate;
+                import java.time.ZonedDateTime;
+                import java.util.ArrayList;
+                import java.util.List;
+                import java.util.UUID;
+                import io.bokun.octo.*;
+                import io.bokun.octo.requestBody.*;
+
+                /**
+                 * Binary codec for {@link %s} (auto-generated).
+                 */
+                final class %sBinaryCodec extends BinaryCodec<%s> {
+                    static final %sBinaryCodec INSTANCE = new %sBinaryCodec();
+
+                    @Override
+                    void write(BinaryOutput out, %s value) {
+                        long present = 0;
+                %s
+                        out.writeVarLong(present);
+                %s
+                    }
+
+                    @Override
+                    %s read(BinaryInput in) {
+                        long present = in.readVarLong();
+                %s
+                        return new %s(%s);
+                    }
+                }
+                """;
+
+        if (dto.fields.size() > 64) {
+            throw new RuntimeException("createRecordCodec: " + dto.name + " has more than 64 fields");
+        }
+
+        var presence = new ArrayList<String>();
+        var writes = new ArrayList<String>();
+        var reads = new ArrayList<String>();
+        var arguments = new ArrayList<String>();
+        for (int i = 0; i < dto.fields.size(); i++) {
+            var field = dto.fields.get(i);
+            var mask = String.format("0x%xL", 1L << i);
+            var value = "value." + field.name + "()";
+            presence.add("        if (" + value + " != null) {\n            present |= " + mask + ";\n        }");
+            writes.add("        if ((present & " + mask + ") != 0) {\n            " + writeStatement(field.type, value) + "\n        }");
+            reads.add("        " + field.type.type + " " + field.name + " = (present & " + mask + ") != 0 ? " + readExpression(field.type) + " : null;");
+            arguments.add(field.name);
+        }
+
+        task.createJavaFile(dto.name + "BinaryCodec", String.format(
+                format,
+                dto.name,
+                dto.name,
+                dto.name,
+                dto.name,
+                dto.name,
+                dto.name,
+                String.join("\n", presence),
+                String.join("\n", writes),
+                dto.name,
+                String.join("\n", reads),
+                dto.name,
+                String.join(", ", arguments)
+        ), PACKAGE);
+    }
+
+    /**
+     * Creates a codec writing the enum's ordinal, the null value is folded in as ordinal + 1 where needed
+     */
+    private void createEnumCodec(String name) {
+        var format = """
+                package io.bokun.octo.binary;
+
+                import io.bokun.octo.%s;
+
+                /**
+                 * Binary codec for {@link %s} (auto-generated).
+                 */
+                final class %sBinaryCodec extends BinaryCodec<%s> {
+                    static final %sBinaryCodec INSTANCE = new %sBinaryCodec();
+
+                    private static final %s[] VALUES = %s.values();
+
+                    @Override
+                    void write(BinaryOutput out, %s value) {
+                        out.writeVarInt(value.ordinal());
+                    }
+
+                    @Override
+                    %s read(BinaryInput in) {
+                        return in.readConstant(VALUES, in.readVarInt());
+                    }
+
+                    @Override
+                    void writeNullable(BinaryOutput out, %s value) {
+                        out.writeVarInt(value == null ? 0 : value.ordinal() + 1);
+                    }
+
+                    @Override
+                    %s readNullable(BinaryInput in) {
+                        int value = in.readVarInt();
+                        return value == 0 ? null : in.readConstant(VALUES, value - 1);
+                    }
+                }
+                """;
+
+        task.createJavaFile(name + "BinaryCodec", String.format(format, Collections.nCopies(12, name).toArray()), PACKAGE);
+    }
+
+    /**
+     * Creates the public registry of the codecs, with the schema version written in every payload header
+     */
+    private void createRegistry() {
+        var format = """
+                package io.bokun.octo.binary;
+
+                /**
+                 * Binary codecs of all OCTO DTOs and enums (auto-generated).
+                 * <p>
+                 * Usage: {@code OctoBinaryCodecs.forType(Booking.class).encode(booking)}
+                 */
+                public final class OctoBinaryCodecs {
+                    /**
+                     * Hash of the records and enums of the spec, payloads are only read by codecs of the same version
+                     */
+                    public static final int SCHEMA_VERSION = 0x%08x;
+
+                    private OctoBinaryCodecs() {
+                    }
+
+                    /**
+                     * @return the codec of the DTO or enum class, null if it isn't a generated type
+                     */
+                    @SuppressWarnings("unchecked")
+                    public static <T> BinaryCodec<T> forType(Class<T> type) {
+                        BinaryCodec<?> codec = switch (type.getName()) {
+                %s
+                            default -> null;
+                        };
+                        return (BinaryCodec<T>) codec;
+                    }
+                }
+                """;
+
+        var cases = new ArrayList<String>();
+        for (var dto : task.classes.values()) {
+            cases.add("            case \"" + dto.qualifiedName() + "\" -> " + dto.name + "BinaryCodec.INSTANCE;");
+        }
+        for (var name : new TreeSet<>(task.enums.keySet())) {
+            cases.add("            case \"io.bokun.octo." + name + "\" -> " + name + "BinaryCodec.INSTANCE;");
+        }
+
+        task.createJavaFile("OctoBinaryCodecs", String.format(format, schemaVersion(), String.join("\n", cases)), PACKAGE);
+    }
+
+    /**
+     * Truncated SHA-256 of every record's fields & every enum's constants, in a stable order
+     */
+    private int schemaVersion() {
+        var schema = new StringBuilder();
+        for (var dto : task.classes.values()) {
+            schema.append(dto.qualifiedName()).append('(');
+            for (var field : dto.fields) {
+                // listType doesn't change the encoding
+                schema.append(field.name).append(':').append(field.type.type.replaceAll("(?<!Array)List<", "ArrayList<")).append(',');
+            }
+            schema.append(")\n");
+        }
+        for (var name : new TreeSet<>(task.enums.keySet())) {
+            schema.append(name).append(task.enums.get(name)).append('\n');
+        }
+
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(schema.toString().getBytes(StandardCharsets.UTF_8));
+            return (digest[0] & 0xFF) << 24 | (digest[1] & 0xFF) << 16 | (digest[2] & 0xFF) << 8 | (digest[3] & 0xFF);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.bokun.octo.gradle;
+
+import java.util.*;
+
+/**
+ * Generates OctoClient, a typed async client with one method per operation of the paths section, on top of the
+ * hand-written io.bokun.octo.client.OctoHttp transport
+ */
+class ClientGenerator {
+    static final String PACKAGE = "client";
+
+    private final GenerateDTOsTask task;
+
+    ClientGenerator(GenerateDTOsTask task) {
+        this.task = task;
+    }
+
+    void generate() {
+        var format = """
+                package io.bokun.octo.client;
+
+                import java.lang.reflect.Type;
+                import java.util.ArrayList;
+                import java.util.List;
+                import java.util.concurrent.CompletableFuture;
+                import com.google.gson.JsonElement;
+                import com.google.gson.reflect.TypeToken;
+                import io.bokun.octo.*;
+                import io.bokun.octo.requestBody.*;
+
+                /**
+                 * Async OCTO client, one method per operation of the spec (auto-generated).
+                 * <p>
+                 * The methods don't block, they return a future completing with the response record, or exceptionally with an
+                 * {@link OctoClientException} on an error response. The *All methods fan a list of request bodies out with
+                 * bounded concurrency, see {@link FanOut}.
+                 */
+                public class OctoClient {
+                %s
+
+                    private final OctoHttp http;
+
+                    public OctoClient(OctoHttp http) {
+                        this.http = http;
+                    }
+
+                    public OctoHttp http() {
+                        return http;
+                    }
+                %s
+                }
+                """;
+
+        var responseTypes = new TreeMap<String, String>();
+        var methods = new ArrayList<String>();
+        for (var operation : task.operations) {
+            var responseConstant = responseConstant(operation.responseType);
+            responseTypes.put(responseConstant, responseTypeExpression(operation));
+            methods.add(createMethod(operation, responseConstant));
+            if (operation.requestBody != null && operation.pathParams.isEmpty() && operation.queryParams.isEmpty()) {
+                methods.add(createBulkMethod(operation));
+            }
+        }
+
+        var constants = new ArrayList<String>();
+        for (var entry : responseTypes.entrySet()) {
+            constants.add("    private static final Type " + entry.getKey() + " = " + entry.getValue() + ";");
+        }
+
+        task.createJavaFile("OctoClient", String.format(
+                format,
+                String.join("\n", constants),
+                String.join("", methods).stripTrailing()
+        ), PACKAGE);
+    }
+
+    /**
+     * Name of the constant holding the response type, e.g. ArrayList<Product> -> PRODUCT_LIST
+     */
+    static String responseConstant(String responseType) {
+        var list = responseType.startsWith("ArrayList<");
+        var name = list ? responseType.substring(10, responseType.length() - 1) : responseType;
+        return name.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase() + (list ? "_LIST" : "");
+    }
+
+    static String responseTypeExpression(GenerateDTOsTask.Operation operation) {
+        var element = operation.responseElementType();
+        if (element != null) {
+            return "TypeToken.getParameterized(ArrayList.class, " + element + ".class).getType()";
+        }
+        return operation.responseType + ".class";
+    }
+
+    /**
+     * Java expression of the operation's path, with path parameters encoded & query parameters appended
+     */
+    private static String pathExpression(GenerateDTOsTask.Operation operation) {
+        var expression = new StringBuilder("\"");
+        for (var segment : operation.path.substring(1).split("/")) {
+            expression.append('/');
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                expression.append("\" + OctoHttp.encodePathSegment(")
+                        .append(segment, 1, segment.length() - 1)
+                        .append(") + \"");
+            } else {
+                expression.append(segment);
+            }
+        }
+        expression.append('"');
+
+        if (!operation.queryParams.isEmpty()) {
+            var pairs = operation.queryParams.stream().map((param) -> "\"" + param + "\", " + param).toList();
+            expression.append(" + OctoHttp.query(").append(String.join(", ", pairs)).append(")");
+        }
+
+        return expression.toString().replace(" + \"\"", "");
+    }
+
+    private static String createMethod(GenerateDTOsTask.Operation operation, String responseConstant) {
+        var format = """
+
+                    /**
+                     * %s: {@code %s %s}
+                %s     */
+                    public CompletableFuture<%s> %s(%s) {
+                        return http.send("%s", %s, %s, %s);
+                    }
+                """;
+
+        var params = new ArrayList<String>();
+        var javadocs = new ArrayList<String>();
+        for (var param : operation.pathParams) {
+            params.add("String " + param);
+            javadocs.add("     * @param " + param + " " + param + " path parameter");
+        }
+        for (var param : operation.queryParams) {
+            params.add("String " + param);
+            javadocs.add("     * @param " + param + " optional " + param + " filter, left out if null");
+        }
+        if (operation.requestBody != null) {
+            params.add(operation.requestBody + " body");
+            javadocs.add("     * @param body request body");
+        }
+
+        return String.format(
+                format,
+                operation.summary != null ? operation.summary : operation.name,
+                operation.method,
+                operation.path,
+                javadocs.isEmpty() ? "" : "     *\n" + String.join("\n", javadocs) + "\n",
+                operation.responseType,
+                operation.name,
+                String.join(", ", params),
+                operation.method,
+                pathExpression(operation),
+                operation.requestBody != null ? "body" : "null",
+                responseConstant
+        );
+    }
+
+    /**
+     * Creates e.g. postAvailabilityAll(List<PostAvailability>, int): one request per body, at most maxConcurrency at a time
+     */
+    private static String createBulkMethod(GenerateDTOsTask.Operation operation) {
+        var format = """
+
+                    /**
+                     * Sends one {@code %s %s} request per body, with at most maxConcurrency requests in flight.
+                     *
+                     * @return one future per body, in the order of the bodies
+                     */
+                    public List<CompletableFuture<%s>> %sAll(List<%s> bodies, int maxConcurrency) {
+                        return FanOut.map(bodies, maxConcurrency, this::%s);
+                    }
+                """;
+
+        return String.format(
+                format,
+                operation.method,
+                operation.path,
+                operation.responseType,
+                operation.name,
+                operation.requestBody,
+                operation.name
+        );
+    }
+}
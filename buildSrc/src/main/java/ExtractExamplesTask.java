@@ -0,0 +1,171 @@
+package io.bokun.octo.gradle;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Collects the example payloads embedded in the OpenAPI spec (examples, x-examples, example values of responses &
+ * components/examples) and writes them as one JSON array per schema, for the JMH benchmarks to load.
+ * <p>
+ * An example is attributed to a schema when it has all of the schema's required properties and no unknown ones,
+ * so the same payload shows up once no matter how many paths embed it.
+ */
+public class ExtractExamplesTask {
+    private final String filename;
+    private final String outputDir;
+    private final List<String> schemaNames;
+
+    /**
+     * Key: schema name, value: JSON of the examples found for it, in the order of the spec
+     */
+    private final Map<String, LinkedHashSet<String>> examples = new LinkedHashMap<>();
+
+    public ExtractExamplesTask(String filename, String outputDir, List<String> schemaNames) {
+        this.filename = filename;
+        this.outputDir = outputDir;
+        this.schemaNames = schemaNames;
+    }
+
+    /**
+     * Entry point from Gradle build script
+     *
+     * @param filename    the filename of the OpenAPI spec we're using
+     * @param outputDir   the output directory, a {@code <schema>.json} file is written for each schema
+     * @param schemaNames names of the schemas under components/schemas to collect examples for
+     */
+    public static void extractExamples(String filename, String outputDir, List<String> schemaNames) {
+        new ExtractExamplesTask(filename, outputDir, schemaNames).extract();
+    }
+
+    /**
+     * Reads the YAML file, walks it looking for examples & saves them
+     */
+    public void extract() {
+        String octoFile;
+        try {
+            octoFile = Files.readString(Paths.get(filename), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        Map<String, Object> octoDefinition = new Yaml().load(octoFile);
+        var octoSchemas = (Map<String, Object>) ((Map<String, Object>) octoDefinition.get("components")).get("schemas");
+        var schemas = new LinkedHashMap<String, Map<String, Object>>();
+        for (var name : schemaNames) {
+            var schema = (Map<String, Object>) octoSchemas.get(name);
+            if (schema == null) {
+                throw new RuntimeException("extractExamples: unknown schema " + name);
+            }
+            schemas.put(name, schema);
+            examples.put(name, new LinkedHashSet<>());
+        }
+
+        walk(octoDefinition, false, schemas);
+
+        for (var entry : examples.entrySet()) {
+            var file = Paths.get(outputDir, entry.getKey() + ".json");
+            try {
+                Files.createDirectories(file.getParent());
+                Files.writeString(file, "[\n" + String.join(",\n", entry.getValue()) + "\n]\n", StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Walks the spec, every value below an examples/x-examples/example/value key is a candidate example
+     */
+    private void walk(Object node, boolean inExample, Map<String, Map<String, Object>> schemas) {
+        if (node instanceof Map<?, ?> map) {
+            if (inExample) {
+                classify((Map<String, Object>) map, schemas);
+            }
+            for (var entry : map.entrySet()) {
+                var key = String.valueOf(entry.getKey());
+                var isExampleKey = Set.of("examples", "x-examples", "example", "value").contains(key);
+                walk(entry.getValue(), inExample || isExampleKey, schemas);
+            }
+        } else if (node instanceof List<?> list) {
+            for (var item : list) {
+                walk(item, inExample, schemas);
+            }
+        }
+    }
+
+    private void classify(Map<String, Object> candidate, Map<String, Map<String, Object>> schemas) {
+        for (var entry : schemas.entrySet()) {
+            var schema = entry.getValue();
+            var properties = (Map<String, Object>) schema.get("properties");
+            var required = (List<String>) schema.getOrDefault("required", List.of());
+            if (properties != null
+                    && candidate.keySet().containsAll(required)
+                    && properties.keySet().containsAll(candidate.keySet())) {
+                examples.get(entry.getKey()).add("  " + toJson(candidate, "  "));
+            }
+        }
+    }
+
+    /**
+     * Minimal JSON writer for the maps, lists & scalars SnakeYAML produces
+     */
+    private static String toJson(Object value, String indent) {
+        if (value == null) {
+            return "null";
+        }
+        if (value instanceof Boolean || value instanceof Number) {
+            return value.toString();
+        }
+        if (value instanceof Date date) {
+            return quote(date.toInstant().toString());
+        }
+        if (value instanceof Map<?, ?> map) {
+            if (map.isEmpty()) {
+                return "{}";
+            }
+            var entries = new ArrayList<String>();
+            for (var entry : map.entrySet()) {
+                entries.add(indent + "  " + quote(String.valueOf(entry.getKey())) + ": " + toJson(entry.getValue(), indent + "  "));
+            }
+            return "{\n" + String.join(",\n", entries) + "\n" + indent + "}";
+        }
+        if (value instanceof List<?> list) {
+            if (list.isEmpty()) {
+                return "[]";
+            }
+            var items = new ArrayList<String>();
+            for (var item : list) {
+                items.add(indent + "  " + toJson(item, indent + "  "));
+            }
+            return "[\n" + String.join(",\n", items) + "\n" + indent + "]";
+        }
+        return quote(value.toString());
+    }
+
+    private static String quote(String value) {
+        var ret = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> ret.append("\\\"");
+                case '\\' -> ret.append("\\\\");
+                case '\n' -> ret.append("\\n");
+                case '\r' -> ret.append("\\r");
+                case '\t' -> ret.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        ret.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        ret.append(c);
+                    }
+                }
+            }
+        }
+        return ret.append('"').toString();
+    }
+}
@@ -2,7 +2,6 @@ package io.bokun.octo.gradle;
 
 import org.yaml.snakeyaml.Yaml;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -18,14 +17,53 @@ public class GenerateDTOsTask {
     private final String filename;
     private final String buildDir;
 
+    /**
+     * Java type used for {@code format: uri} properties: URL (default) or URI
+     */
+    final String uriType;
+
+    /**
+     * Type of the array components: ArrayList, or List for immutable {@code io.bokun.octo.CompactList}s
+     */
+    final String listType;
+
     /**
      * Key: name of the enum, value: list of all enum items
      */
-    private final Map<String,ArrayList<String>> enums = new HashMap<>();
+    final Map<String,ArrayList<String>> enums = new HashMap<>();
+
+    /**
+     * Key: name of the record, value: its fields & package, used by the generators emitted next to the DTOs
+     */
+    final Map<String,DtoClass> classes = new TreeMap<>();
+
+    /**
+     * All operations under paths, in the order of the spec
+     */
+    final List<Operation> operations = new ArrayList<>();
+
+    /**
+     * Key: path of a generated file, value: its content. Written at the end of the run, as some DTOs are created
+     * more than once while the spec is walked & only the last version counts.
+     */
+    private final Map<Path, byte[]> generatedFiles = new HashMap<>();
 
     public GenerateDTOsTask(String filename, String buildDir) {
+        this(filename, buildDir, Map.of());
+    }
+
+    public GenerateDTOsTask(String filename, String buildDir, Map<String, String> options) {
         this.filename = filename;
         this.buildDir = buildDir;
+        this.uriType = options.getOrDefault("uriType", "URL");
+        this.listType = options.getOrDefault("listType", "ArrayList");
+
+        if (!Set.of("URL", "URI").contains(uriType)) {
+            throw new RuntimeException("uriType must be URL or URI, got: " + uriType);
+        }
+        if (!Set.of("ArrayList", "List").contains(listType)) {
+            throw new RuntimeException("listType must be ArrayList or List, got: " + listType);
+        }
     }
 
     /**
@@ -35,18 +73,35 @@ public class GenerateDTOsTask {
      * @param buildDir the output directory
      */
     public static void generateDTOs(String filename, String buildDir) {
-        var instance = new io.bokun.octo.gradle.GenerateDTOsTask(filename, buildDir);
+        generateDTOs(filename, buildDir, Map.of());
+    }
+
+    /**
+     * Entry point from Gradle build script, with generator options
+     *
+     * @param filename the filename of the OpenAPI spec we're using
+     * @param buildDir the output directory
+     * @param options  generator modes, e.g. uriType=URI to generate java.net.URI instead of java.net.URL, or
+     *                 listType=List to generate immutable lists instead of ArrayLists
+     */
+    public static void generateDTOs(String filename, String buildDir, Map<String, String> options) {
+        var instance = new io.bokun.octo.gradle.GenerateDTOsTask(filename, buildDir, options);
         instance.generate();
     }
 
     /**
      * Type information from the OpenAPI spec, non-nullable is generated as @Nonnull, required is so far unused
      */
-    private static class Type {
+    static class Type {
         public String type;
         public Boolean nullable = false;
         public Boolean required = false;
 
+        /**
+         * The type inside the collection, if this type was created through {@link #wrap(String)}
+         */
+        public Type element;
+
         public Type(String type) {
             this.type = type;
         }
@@ -62,11 +117,96 @@ public class GenerateDTOsTask {
         }
 
         public Type wrap(String wrapClass) {
-            return new Type(wrapClass + "<" + type + ">").nullable(nullable).required(required);
+            var wrapped = new Type(wrapClass + "<" + type + ">").nullable(nullable).required(required);
+            wrapped.element = this;
+            return wrapped;
+        }
+
+        public boolean isNonnull() {
+            return !nullable && required;
         }
 
         public String toString() {
-            return (nullable || !required ? "" : "@Nonnull ") + type;
+            return (isNonnull() ? "@Nonnull " : "") + type;
+        }
+    }
+
+    /**
+     * A single record component: Java name, name in the JSON payload & its type
+     */
+    static class Field {
+        public final String name;
+        public final String jsonName;
+        public final Type type;
+
+        public Field(String name, String jsonName, Type type) {
+            this.name = name;
+            this.jsonName = jsonName;
+            this.type = type;
+        }
+    }
+
+    /**
+     * An operation from the paths section, e.g. POST /bookings/{uuid}/confirm.
+     * requestBody is the name of the generated requestBody record or null, requestBodyRequired whether the spec marks
+     * the body required, responseType the Java type of the 200 response (e.g. Booking, ArrayList<Product>) or
+     * JsonElement if it doesn't match a generated record.
+     */
+    static class Operation {
+        public final String path;
+        public final String method;
+        public final String name;
+        public final String summary;
+        public final List<String> pathParams;
+        public final List<String> queryParams;
+        public final String requestBody;
+        public final boolean requestBodyRequired;
+        public final String responseType;
+
+        public Operation(String path,
+                         String method,
+                         String name,
+                         String summary,
+                         List<String> pathParams,
+                         List<String> queryParams,
+                         String requestBody,
+                         boolean requestBodyRequired,
+                         String responseType) {
+            this.path = path;
+            this.method = method;
+            this.name = name;
+            this.summary = summary;
+            this.pathParams = pathParams;
+            this.queryParams = queryParams;
+            this.requestBody = requestBody;
+            this.requestBodyRequired = requestBodyRequired;
+            this.responseType = responseType;
+        }
+
+        /**
+         * Element type of an array response, e.g. Product for ArrayList<Product>, null if the response is not an array
+         */
+        public String responseElementType() {
+            return responseType.startsWith("ArrayList<") ? responseType.substring(10, responseType.length() - 1) : null;
+        }
+    }
+
+    /**
+     * A generated record, pathPrefix is the sub-package (e.g. requestBody) or null
+     */
+    static class DtoClass {
+        public final String name;
+        public final String pathPrefix;
+        public final List<Field> fields;
+
+        public DtoClass(String name, String pathPrefix, List<Field> fields) {
+            this.name = name;
+            this.pathPrefix = pathPrefix;
+            this.fields = fields;
+        }
+
+        public String qualifiedName() {
+            return "io.bokun.octo." + (pathPrefix == null ? "" : pathPrefix + ".") + name;
         }
     }
 
@@ -98,7 +238,7 @@ public class GenerateDTOsTask {
     /**
      * Capitalizes the input string
      */
-    private String capitalize(String input) {
+    static String capitalize(String input) {
         return input.substring(0, 1).toUpperCase() + input.substring(1);
     }
 
@@ -123,7 +263,7 @@ public class GenerateDTOsTask {
 
     /**
      * returns the correct Java type for the given OpenAPI spec type.
-     * If the input is an array, it returns an ArrayList of the type inside the array
+     * If the input is an array, it returns an ArrayList (or List, see listType) of the type inside the array
      */
     private Type getType(
             String type,
@@ -136,7 +276,7 @@ public class GenerateDTOsTask {
     ) {
         if (type.equals("array")) {
             var items = (Map<String, Object>) prop.get("items");
-            return processAndGetType(items, propName, schemaName, true, isRequired, pathPrefix).wrap("ArrayList");
+            return processAndGetType(items, propName, schemaName, true, isRequired, pathPrefix).wrap(listType);
         }
 
         // Restrictions show up twice and the corresponding classes are called UnitRestrictions and OptionRestrictions
@@ -151,7 +291,7 @@ public class GenerateDTOsTask {
 
         if (type.equals("string") && prop.containsKey("format")) {
             return switch((String) prop.get("format")) {
-                case "uri" -> new Type("URL").required(isRequired.test(propName));
+                case "uri" -> new Type(uriType).required(isRequired.test(propName));
                 case "email" -> new Type("String").required(isRequired.test(propName));
                 case "date-time" -> new Type("ZonedDateTime").required(isRequired.test(propName));
                 case "date" -> new Type("LocalDate").required(isRequired.test(propName));
@@ -368,9 +508,11 @@ public class GenerateDTOsTask {
         Predicate<String> isRequired = (String key) -> required == null ? false : required.contains(key);
         var params = new ArrayList<String>();
         var javadocs = new ArrayList<String>();
+        var fields = new ArrayList<Field>();
 
         for (var propName : properties.keySet()) {
             var prop = (Map<String, Object>) properties.get(propName);
+            var jsonName = propName;
             var annotation = "";
 
             if (propName.equals("default")) {
@@ -378,16 +520,26 @@ public class GenerateDTOsTask {
                 annotation = "@SerializedName(\"default\") ";
             }
 
-            params.add(annotation + processAndGetType(prop, propName, name, false, isRequired, null) + " " + propName);
+            // Checked against the property name, not the name of its type, e.g. ReservationRequestUnitItem for unitItems
+            var propRequired = isRequired.test(jsonName);
+            var type = processAndGetType(prop, propName, name, false, (String n) -> propRequired, null);
+            params.add(annotation + type + " " + propName);
             javadocs.add(" * @param " + propName + " " + (prop.containsKey("description") && !prop.get("description").equals("") ? prop.get("description") : propName));
+            fields.add(new Field(propName, jsonName, type));
         }
 
         if (name.equals("PostAvailability")) {
             params.add("LocalDate localDate");
             javadocs.add(" * @param localDate localDate - if set, it's the same as localDateStart and localDateEnd being set to the same value");
+            fields.add(new Field("localDate", "localDate", new Type("LocalDate")));
         }
 
-        createJavaClass(item, name, javadocs, params, pathPrefix);
+        createJavaClass(item, name, javadocs, params, fields, pathPrefix);
+
+        // Restrictions is something we don't use, we use UnitRestrictions and OptionRestrictions
+        if (!Objects.equals(name, "Restrictions")) {
+            classes.put(name, new DtoClass(name, pathPrefix, fields));
+        }
     }
 
     /**
@@ -397,6 +549,7 @@ public class GenerateDTOsTask {
                                  String name,
                                  ArrayList<String> javadocs,
                                  ArrayList<String> params,
+                                 ArrayList<Field> fields,
                                  String pathPrefix) {
         // Restrictions is something we don't use, we use UnitRestrictions and OptionRestrictions
         if (Objects.equals(name, "Restrictions")) {
@@ -405,10 +558,13 @@ public class GenerateDTOsTask {
         var format = """
                 package io.bokun.octo%s;
                 
+                import java.net.MalformedURLException;
+                import java.net.URI;
                 import java.net.URL;
                 import java.time.LocalDate;
                 import java.time.ZonedDateTime;
                 import java.util.ArrayList;
+                import java.util.List;
                 import java.util.UUID;
                 import javax.annotation.Nonnull;
                 import com.google.gson.annotations.SerializedName;
@@ -421,7 +577,7 @@ public class GenerateDTOsTask {
                 
                 public record %s (
                     %s
-                ) {}
+                ) {%s}
                 """;
 
         var pkg = pathPrefix == null ? "" : "." + pathPrefix;
@@ -436,10 +592,54 @@ public class GenerateDTOsTask {
                         : name + " (auto-generated)",
                 String.join("\n", javadocs),
                 name,
-                String.join(",\n    ", params)
+                String.join(",\n    ", params),
+                createCompactConstructor(name, fields) + String.join("", createUrlAccessors(fields))
         ), pathPrefix);
     }
 
+    /**
+     * With listType=List, list components are copied into a CompactList unless they already are one, so records
+     * built by callers are as immutable as the deserialized ones
+     */
+    private String createCompactConstructor(String name, List<Field> fields) {
+        if (!listType.equals("List")) {
+            return "";
+        }
+        var copies = fields.stream()
+                .filter((field) -> field.type.element != null)
+                .map((field) -> "        " + field.name + " = CompactList.copyOfNullable(" + field.name + ");\n")
+                .toList();
+        if (copies.isEmpty()) {
+            return "";
+        }
+        return "\n    public " + name + " {\n" + String.join("", copies) + "    }\n";
+    }
+
+    /**
+     * With uriType=URI, URI components get a {@code fooUrl()} accessor, so callers needing a URL don't have to convert.
+     * URI is used because URL.equals/hashCode resolve the host name, which blocks on DNS.
+     */
+    private List<String> createUrlAccessors(List<Field> fields) {
+        var format = """
+
+                    /**
+                     * @return %s as a URL, or null if it's not set
+                     * @throws IllegalStateException if the URI can't be represented as a URL
+                     */
+                    public URL %sUrl() {
+                        try {
+                            return %s == null ? null : %s.toURL();
+                        } catch (MalformedURLException | IllegalArgumentException e) {
+                            throw new IllegalStateException("Not a valid URL: " + %s, e);
+                        }
+                    }
+                """;
+        return fields.stream()
+                .filter((field) -> field.type.type.equals("URI"))
+                .map((field) -> String.format(format, field.name, field.name, field.name, field.name, field.name))
+                .toList();
+    }
+
     /**
      * Creates a java enum out of the name & list of items.
      */
@@ -464,14 +664,61 @@ public class GenerateDTOsTask {
     }
 
     /**
-     * Saves a java class or object to disk
+     * Queues a java class or object to be saved to disk by {@link #writeFiles()}
      */
-    private void createJavaFile(String name, String content, String pathPrefix) {
+    void createJavaFile(String name, String content, String pathPrefix) {
         var folder = pathPrefix == null ? "" : pathPrefix + "/";
-        var file = new File(buildDir + "/generatedDTOs/src/main/java/" + folder + name + ".java");
+        generatedFiles.put(Paths.get(outputDir(), folder + name + ".java"), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Saves the generated files. Files whose content didn't change aren't rewritten, so they keep their timestamp &
+     * the compiler only recompiles what the spec or generator changed.
+     */
+    private void writeFiles() {
         try {
-            Files.createDirectories(Paths.get(file.getParent()));
-            Files.write(Path.of(file.getPath()), content.getBytes());
+            for (var entry : generatedFiles.entrySet()) {
+                var file = entry.getKey();
+                var bytes = entry.getValue();
+                if (Files.isRegularFile(file) && Files.size(file) == bytes.length && Arrays.equals(Files.readAllBytes(file), bytes)) {
+                    continue;
+                }
+                Files.createDirectories(file.getParent());
+                Files.write(file, bytes);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String outputDir() {
+        return buildDir + "/generatedDTOs/src/main/java";
+    }
+
+    /**
+     * Deletes the files of earlier runs that weren't generated this time, e.g. after a schema was removed from
+     * the spec, plus the directories left empty
+     */
+    private void deleteStaleFiles() {
+        var root = Paths.get(outputDir());
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (var paths = Files.walk(root)) {
+            // Deepest paths first, so directories are emptied before they are checked
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                if (Files.isDirectory(path)) {
+                    if (!path.equals(root)) {
+                        try (var children = Files.list(path)) {
+                            if (children.findAny().isEmpty()) {
+                                Files.delete(path);
+                            }
+                        }
+                    }
+                } else if (!generatedFiles.containsKey(path)) {
+                    Files.delete(path);
+                }
+            }
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -542,6 +789,110 @@ public class GenerateDTOsTask {
             }
         }
 
+        for (var path : octoPaths.keySet()) {
+            var requestMethods = (Map<String, Object>) octoPaths.get(path);
+            for (var method : requestMethods.keySet()) {
+                if (method.toLowerCase().equals("parameters")) {
+                    continue;
+                }
+                operations.add(createOperation(path, method, (Map<String, Object>) requestMethods.get(method)));
+            }
+        }
+
         createEnums();
+
+        new TypeAdapterGenerator(this).generate();
+        new ClientGenerator(this).generate();
+        new ServerGenerator(this).generate();
+        new BinaryCodecGenerator(this).generate();
+        new JsonEncoderGenerator(this).generate();
+        new ValidatorGenerator(this).generate();
+
+        writeFiles();
+        deleteStaleFiles();
+    }
+
+    /**
+     * Collects what the client & server need to know about an operation: its parameters, request & response types
+     */
+    private Operation createOperation(String path, String method, Map<String, Object> methodObject) {
+        var pathParams = new ArrayList<String>();
+        for (var segment : path.split("/")) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                pathParams.add(segment.substring(1, segment.length() - 1));
+            }
+        }
+
+        var queryParams = new ArrayList<String>();
+        var parameters = (List<Map<String, Object>>) methodObject.getOrDefault("parameters", List.of());
+        for (var parameter : parameters) {
+            if ("query".equals(parameter.get("in"))) {
+                queryParams.add((String) parameter.get("name"));
+            }
+        }
+
+        var dtoName = createDTONameFromPath(path, method);
+        var requestBody = methodObject.containsKey("requestBody") && classes.containsKey(dtoName) ? dtoName : null;
+        var requestBodyObject = (Map<String, Object>) methodObject.get("requestBody");
+        var requestBodyRequired = requestBodyObject != null && Boolean.TRUE.equals(requestBodyObject.get("required"));
+
+        return new Operation(
+                path,
+                method.toUpperCase(),
+                Character.toLowerCase(dtoName.charAt(0)) + dtoName.substring(1),
+                (String) methodObject.get("summary"),
+                pathParams,
+                queryParams,
+                requestBody,
+                requestBodyRequired,
+                getResponseType(methodObject)
+        );
+    }
+
+    /**
+     * The 200 response schemas are inlined in the spec, they're matched to the generated record having the same properties
+     */
+    private String getResponseType(Map<String, Object> methodObject) {
+        var responses = (Map<Object, Object>) methodObject.get("responses");
+        var ok = responses == null ? null : (Map<String, Object>) (responses.containsKey("200") ? responses.get("200") : responses.get(200));
+        var content = ok == null ? null : (Map<String, Object>) ok.get("content");
+        var applicationJson = content == null ? null : (Map<String, Object>) content.get("application/json");
+        var schema = applicationJson == null ? null : (Map<String, Object>) applicationJson.get("schema");
+        if (schema == null) {
+            return "JsonElement";
+        }
+
+        if ("array".equals(schema.get("type"))) {
+            var element = findRecordForSchema((Map<String, Object>) schema.get("items"));
+            return element == null ? "JsonElement" : "ArrayList<" + element + ">";
+        }
+
+        var record = findRecordForSchema(schema);
+        return record == null ? "JsonElement" : record;
+    }
+
+    private String findRecordForSchema(Map<String, Object> schema) {
+        if (schema == null) {
+            return null;
+        }
+        if (schema.containsKey("$ref")) {
+            var ref = (String) schema.get("$ref");
+            var name = ref.substring(ref.lastIndexOf('/') + 1);
+            return classes.containsKey(name) ? name : null;
+        }
+        var properties = (Map<String, Object>) schema.get("properties");
+        if (properties == null) {
+            return null;
+        }
+        for (var dto : classes.values()) {
+            if (dto.pathPrefix != null) {
+                continue;
+            }
+            var jsonNames = dto.fields.stream().map((field) -> field.jsonName).collect(java.util.stream.Collectors.toSet());
+            if (jsonNames.equals(properties.keySet())) {
+                return dto.name;
+            }
+        }
+        return null;
     }
 }
\ No newline at end of file
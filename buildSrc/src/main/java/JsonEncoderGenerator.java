@@ -0,0 +1,189 @@
+package io.bokun.octo.gradle;
+
+import java.util.*;
+
+/**
+ * Generates a UTF-8 JSON encoder for every DTO & enum registered by {@link GenerateDTOsTask}, on top of the
+ * hand-written io.bokun.octo.json runtime, plus the OctoJsonEncoders registry
+ */
+class JsonEncoderGenerator {
+    static final String PACKAGE = "json";
+
+    /**
+     * Types written inline through a Utf8JsonOutput method, value: constant in ScalarEncoders for lists
+     */
+    private static final Map<String, String> SCALAR_TYPES = Map.of(
+            "String", "STRING",
+            "Boolean", "BOOLEAN",
+            "Integer", "INTEGER",
+            "UUID", "UUID",
+            "URL", "URL",
+            "URI", "URI",
+            "LocalDate", "LOCAL_DATE",
+            "ZonedDateTime", "ZONED_DATE_TIME"
+    );
+
+    private final GenerateDTOsTask task;
+
+    JsonEncoderGenerator(GenerateDTOsTask task) {
+        this.task = task;
+    }
+
+    void generate() {
+        for (var dto : task.classes.values()) {
+            createRecordEncoder(dto);
+        }
+        for (var name : new TreeSet<>(task.enums.keySet())) {
+            createEnumEncoder(name);
+        }
+        createRegistry();
+    }
+
+    /**
+     * The encoder instance for the type, e.g. ScalarEncoders.STRING or UnitJsonEncoder.INSTANCE
+     */
+    private static String encoder(GenerateDTOsTask.Type type) {
+        var scalar = SCALAR_TYPES.get(type.type);
+        return scalar != null ? "ScalarEncoders." + scalar : type.type + "JsonEncoder.INSTANCE";
+    }
+
+    /**
+     * Suffix of the Utf8JsonOutput method for a scalar type, e.g. UUID -> writeUuid
+     */
+    private static String scalarMethod(String type) {
+        return type.equals(type.toUpperCase()) ? GenerateDTOsTask.capitalize(type.toLowerCase()) : type;
+    }
+
+    private static String writeStatement(GenerateDTOsTask.Type type, String value) {
+        if (type.element != null) {
+            return "out.writeList(" + value + ", " + encoder(type.element) + ");";
+        }
+        if (SCALAR_TYPES.containsKey(type.type)) {
+            return "out.write" + scalarMethod(type.type) + "(" + value + ");";
+        }
+        return encoder(type) + ".write(out, " + value + ");";
+    }
+
+    /**
+     * Name of the constant holding the pre-encoded name of a field, e.g. availabilityId -> AVAILABILITY_ID_NAME
+     */
+    private static String nameConstant(GenerateDTOsTask.Field field) {
+        return field.name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase() + "_NAME";
+    }
+
+    /**
+     * Creates an encoder writing the record's non-null fields in declaration order, like the Gson adapters do
+     */
+    private void createRecordEncoder(GenerateDTOsTask.DtoClass dto) {
+        var format = """
+                package io.bokun.octo.json;
+
+                import java.io.IOException;
+                import io.bokun.octo.*;
+                import io.bokun.octo.requestBody.*;
+
+                /**
+                 * UTF-8 JSON encoder for {@link %s} (auto-generated).
+                 */
+                final class %sJsonEncoder extends JsonEncoder<%s> {
+                    static final %sJsonEncoder INSTANCE = new %sJsonEncoder();
+
+                %s
+
+                    @Override
+                    void write(Utf8JsonOutput out, %s value) throws IOException {
+                        out.beginObject();
+                %s
+                        out.endObject();
+                    }
+                }
+                """;
+
+        var names = new ArrayList<String>();
+        var writes = new ArrayList<String>();
+        for (var field : dto.fields) {
+            var value = "value." + field.name + "()";
+            names.add("    private static final byte[] " + nameConstant(field) + " = Utf8JsonOutput.name(\"" + field.jsonName + "\");");
+            writes.add("        if (" + value + " != null) {\n            out.name(" + nameConstant(field) + ");\n            "
+                    + writeStatement(field.type, value) + "\n        }");
+        }
+
+        task.createJavaFile(dto.name + "JsonEncoder", String.format(
+                format,
+                dto.name,
+                dto.name,
+                dto.name,
+                dto.name,
+                dto.name,
+                String.join("\n", names),
+                dto.name,
+                String.join("\n", writes)
+        ).replace("\n\n\n", "\n\n").replace("out.beginObject();\n\n", "out.beginObject();\n"), PACKAGE);
+    }
+
+    /**
+     * Creates an encoder copying the pre-encoded name of the constant
+     */
+    private void createEnumEncoder(String name) {
+        var format = """
+                package io.bokun.octo.json;
+
+                import java.io.IOException;
+                import io.bokun.octo.%s;
+
+                /**
+                 * UTF-8 JSON encoder for {@link %s} (auto-generated).
+                 */
+                final class %sJsonEncoder extends JsonEncoder<%s> {
+                    static final %sJsonEncoder INSTANCE = new %sJsonEncoder();
+
+                    private static final byte[][] CONSTANTS = Utf8JsonOutput.constants(%s.values());
+
+                    @Override
+                    void write(Utf8JsonOutput out, %s value) throws IOException {
+                        out.writeRaw(CONSTANTS[value.ordinal()]);
+                    }
+                }
+                """;
+
+        task.createJavaFile(name + "JsonEncoder", String.format(format, Collections.nCopies(8, name).toArray()), PACKAGE);
+    }
+
+    private void createRegistry() {
+        var format = """
+                package io.bokun.octo.json;
+
+                /**
+                 * UTF-8 JSON encoders of all OCTO DTOs and enums (auto-generated).
+                 * <p>
+                 * Usage: {@code OctoJsonEncoders.forType(Booking.class).encode(booking, outputStream)}
+                 */
+                public final class OctoJsonEncoders {
+                    private OctoJsonEncoders() {
+                    }
+
+                    /**
+                     * @return the encoder of the DTO or enum class, null if it isn't a generated type
+                     */
+                    @SuppressWarnings("unchecked")
+                    public static <T> JsonEncoder<T> forType(Class<T> type) {
+                        JsonEncoder<?> encoder = switch (type.getName()) {
+                %s
+                            default -> null;
+                        };
+                        return (JsonEncoder<T>) encoder;
+                    }
+                }
+                """;
+
+        var cases = new ArrayList<String>();
+        for (var dto : task.classes.values()) {
+            cases.add("            case \"" + dto.qualifiedName() + "\" -> " + dto.name + "JsonEncoder.INSTANCE;");
+        }
+        for (var name : new TreeSet<>(task.enums.keySet())) {
+            cases.add("            case \"io.bokun.octo." + name + "\" -> " + name + "JsonEncoder.INSTANCE;");
+        }
+
+        task.createJavaFile("OctoJsonEncoders", String.format(format, String.join("\n", cases)), PACKAGE);
+    }
+}
@@ -0,0 +1,264 @@
+package io.bokun.octo.gradle;
+
+import java.util.*;
+
+/**
+ * Generates the server side of the paths section: the OctoService interface suppliers implement, and OctoDispatcher
+ * routing requests to it through the hand-written io.bokun.octo.server.PathRouter
+ */
+class ServerGenerator {
+    static final String PACKAGE = "server";
+
+    private final GenerateDTOsTask task;
+
+    ServerGenerator(GenerateDTOsTask task) {
+        this.task = task;
+    }
+
+    void generate() {
+        createService();
+        createDispatcher();
+    }
+
+    /**
+     * Name of the route constant of an operation, e.g. postBookingsUuidConfirm -> POST_BOOKINGS_UUID_CONFIRM
+     */
+    private static String routeConstant(GenerateDTOsTask.Operation operation) {
+        return operation.name.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    private void createService() {
+        var format = """
+                package io.bokun.octo.server;
+
+                import java.util.ArrayList;
+                import com.google.gson.JsonElement;
+                import io.bokun.octo.*;
+                import io.bokun.octo.requestBody.*;
+
+                /**
+                 * Server side of the OCTO API, one method per operation of the spec (auto-generated).
+                 * <p>
+                 * Implement the operations the supplier supports, the others answer 501 NOT_IMPLEMENTED. The methods are
+                 * called by {@link OctoDispatcher} on the request thread and may block, e.g. on virtual threads. Request
+                 * bodies are checked against the spec before the call, errors are answered by throwing an
+                 * {@link OctoServiceException}.
+                 */
+                public interface OctoService {%s
+                }
+                """;
+
+        var methods = new ArrayList<String>();
+        for (var operation : task.operations) {
+            methods.add(createServiceMethod(operation));
+        }
+
+        task.createJavaFile("OctoService", String.format(format, String.join("", methods).stripTrailing()), PACKAGE);
+    }
+
+    private static String createServiceMethod(GenerateDTOsTask.Operation operation) {
+        var format = """
+
+                    /**
+                     * %s: {@code %s %s}
+                %s     */
+                    default %s %s(%s) {
+                        throw OctoServiceException.notImplemented("%s %s");
+                    }
+                """;
+
+        var params = new ArrayList<String>();
+        var javadocs = new ArrayList<String>();
+        for (var param : operation.pathParams) {
+            params.add("String " + param);
+            javadocs.add("     * @param " + param + " " + param + " path parameter");
+        }
+        for (var param : operation.queryParams) {
+            params.add("String " + param);
+            javadocs.add("     * @param " + param + " optional " + param + " filter, null if not set");
+        }
+        if (operation.requestBody != null) {
+            params.add(operation.requestBody + " body");
+            javadocs.add("     * @param body request body" + (operation.requestBodyRequired ? "" : ", null if the request has none"));
+        }
+
+        return String.format(
+                format,
+                operation.summary != null ? operation.summary : operation.name,
+                operation.method,
+                operation.path,
+                javadocs.isEmpty() ? "" : "     *\n" + String.join("\n", javadocs) + "\n",
+                operation.responseType,
+                operation.name,
+                String.join(", ", params),
+                operation.method,
+                operation.path
+        );
+    }
+
+    /**
+     * Encoder of the operation's response, e.g. JsonEncoder.listOf(OctoJsonEncoders.forType(Product.class)); null,
+     * so written through the Gson, for responses that aren't generated records
+     */
+    private static String encoderExpression(GenerateDTOsTask.Operation operation) {
+        var element = operation.responseElementType();
+        if (element != null) {
+            return "JsonEncoder.listOf(OctoJsonEncoders.forType(" + element + ".class))";
+        }
+        return operation.responseType.equals("JsonElement") ? "null" : "OctoJsonEncoders.forType(" + operation.responseType + ".class)";
+    }
+
+    private void createDispatcher() {
+        var format = """
+                package io.bokun.octo.server;
+
+                import java.lang.reflect.Type;
+                import java.util.ArrayList;
+                import com.google.gson.Gson;
+                import com.google.gson.GsonBuilder;
+                import com.google.gson.JsonElement;
+                import com.google.gson.reflect.TypeToken;
+                import io.bokun.octo.*;
+                import io.bokun.octo.gson.OctoTypeAdapterFactory;
+                import io.bokun.octo.json.JsonEncoder;
+                import io.bokun.octo.json.OctoJsonEncoders;
+                import io.bokun.octo.requestBody.*;
+
+                /**
+                 * Routes OCTO requests to an {@link OctoService} and binds their bodies (auto-generated).
+                 * <p>
+                 * Transport-agnostic: the server passes the method, the raw request target and the body, and sends the
+                 * returned response, see {@link OctoHttpHandler} for the JDK HTTP server. Request bodies are bound to the
+                 * requestBody records and validated. Responses are written straight to UTF-8 by the generated {@link JsonEncoder}s,
+                 * or through the Gson if one is passed. Errors thrown by
+                 * the service as {@link OctoServiceException}, malformed requests and unknown routes are answered with
+                 * OCTO error bodies, other exceptions are left to the transport.
+                 * <p>
+                 * Thread-safe and holds no locks, so it runs on virtual threads without pinning. Binding a body keeps an
+                 * {@link io.bokun.octo.gson.UnknownEnumValues} recording in a thread-local while the body is read,
+                 * removed before the call to the service.
+                 */
+                public final class OctoDispatcher {
+                %s
+
+                %s
+
+                %s
+
+                    private static final PathRouter ROUTER = new PathRouter();
+
+                    static {
+                %s
+                    }
+
+                    private final OctoService service;
+                    private final Gson gson;
+                    private final boolean encodeDirectly;
+
+                    /**
+                     * Dispatcher writing the responses with the generated {@link JsonEncoder}s
+                     */
+                    public OctoDispatcher(OctoService service) {
+                        this(service, new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory()).create(), true);
+                    }
+
+                    /**
+                     * Dispatcher reading and writing the bodies with the given Gson, e.g. one configured with a
+                     * {@link io.bokun.octo.gson.SerializationListener}
+                     *
+                     * @param gson a Gson with {@link OctoTypeAdapterFactory} registered
+                     */
+                    public OctoDispatcher(OctoService service, Gson gson) {
+                        this(service, gson, false);
+                    }
+
+                    private OctoDispatcher(OctoService service, Gson gson, boolean encodeDirectly) {
+                        this.service = service;
+                        this.gson = gson;
+                        this.encodeDirectly = encodeDirectly;
+                    }
+
+                    /**
+                     * @param method HTTP method, e.g. POST
+                     * @param target the raw path and query of the request, relative to the OCTO endpoint, e.g.
+                     *               {@code /bookings/abc/confirm} or {@code /bookings?productId=x}
+                     * @param body   the request body, empty or null for requests without one
+                     */
+                    public OctoResponse dispatch(String method, String target, byte[] body) {
+                        int queryStart = target.indexOf('?');
+                        int pathEnd = queryStart < 0 ? target.length() : queryStart;
+                        try {
+                            return switch (ROUTER.match(method, target, pathEnd)) {
+                %s
+                                case PathRouter.METHOD_NOT_ALLOWED -> error(new OctoServiceException(405, "METHOD_NOT_ALLOWED", method + " is not allowed on " + target));
+                                default -> error(new OctoServiceException(404, "NOT_FOUND", "No OCTO operation at " + target));
+                            };
+                        } catch (OctoServiceException e) {
+                            return error(e);
+                        }
+                    }
+
+                    private OctoResponse ok(Object value, JsonEncoder<?> encoder, Type type) {
+                        return Requests.ok(gson, encodeDirectly ? encoder : null, value, type);
+                    }
+
+                    /**
+                     * @return the OCTO error body of the exception, e.g. for transports answering their own errors
+                     */
+                    public OctoResponse error(OctoServiceException exception) {
+                        return Requests.error(gson, exception);
+                    }
+                }
+                """;
+
+        var routeConstants = new ArrayList<String>();
+        var responseTypes = new TreeMap<String, String>();
+        var responseEncoders = new TreeMap<String, String>();
+        var routes = new ArrayList<String>();
+        var cases = new ArrayList<String>();
+        for (int i = 0; i < task.operations.size(); i++) {
+            var operation = task.operations.get(i);
+            var route = routeConstant(operation);
+            var responseConstant = ClientGenerator.responseConstant(operation.responseType);
+            routeConstants.add("    private static final int " + route + " = " + i + ";");
+            responseTypes.put(responseConstant, ClientGenerator.responseTypeExpression(operation));
+            responseEncoders.put(responseConstant + "_ENCODER", encoderExpression(operation));
+            routes.add("        ROUTER.add(\"" + operation.method + "\", \"" + operation.path + "\", " + route + ");");
+
+            // Path parameters are read back from their segment of the matched target, e.g. segment 1 of /bookings/{uuid}
+            var arguments = new ArrayList<String>();
+            var segments = operation.path.substring(1).split("/");
+            for (int segment = 0; segment < segments.length; segment++) {
+                if (segments[segment].startsWith("{")) {
+                    arguments.add("Requests.pathParameter(target, pathEnd, " + segment + ")");
+                }
+            }
+            for (var param : operation.queryParams) {
+                arguments.add("Requests.queryParameter(target, queryStart, \"" + param + "\")");
+            }
+            if (operation.requestBody != null) {
+                arguments.add("Requests.body(gson, body, " + operation.requestBody + ".class, " + operation.requestBodyRequired + ")");
+            }
+            cases.add("                case " + route + " -> ok(service." + operation.name + "("
+                    + String.join(", ", arguments) + "), " + responseConstant + "_ENCODER, " + responseConstant + ");");
+        }
+
+        var responseConstants = new ArrayList<String>();
+        for (var entry : responseTypes.entrySet()) {
+            responseConstants.add("    private static final Type " + entry.getKey() + " = " + entry.getValue() + ";");
+        }
+        var encoderConstants = new ArrayList<String>();
+        for (var entry : responseEncoders.entrySet()) {
+            encoderConstants.add("    private static final JsonEncoder<?> " + entry.getKey() + " = " + entry.getValue() + ";");
+        }
+
+        task.createJavaFile("OctoDispatcher", String.format(
+                format,
+                String.join("\n", routeConstants),
+                String.join("\n", responseConstants),
+                String.join("\n", encoderConstants),
+                String.join("\n", routes),
+                String.join("\n", cases)
+        ), PACKAGE);
+    }
+}
@@ -0,0 +1,413 @@
+package io.bokun.octo.gradle;
+
+import java.util.*;
+
+/**
+ * Generates reflection-free Gson TypeAdapters for the DTOs & enums registered by {@link GenerateDTOsTask},
+ * plus a TypeAdapterFactory registering all of them
+ */
+class TypeAdapterGenerator {
+    static final String PACKAGE = "gson";
+
+    /**
+     * Types with a dedicated read/write helper in io.bokun.octo.gson.JsonValues, everything else goes through a TypeAdapter
+     */
+    private static final Set<String> INLINE_TYPES = Set.of("String", "Boolean", "Integer", "UUID", "URL", "URI");
+
+    /**
+     * Types read with the hand-written adapters in src/main/java, using the fast path of IsoDateTimes. They aren't
+     * looked up from Gson, so the factory doesn't override the date adapters registered by the caller.
+     */
+    private static final Map<String, String> DATE_ADAPTERS = Map.of(
+            "ZonedDateTime", "new ZonedDateTimeTypeAdapter()",
+            "LocalDate", "new LocalDateTypeAdapter()"
+    );
+
+    /**
+     * The records of the catalog responses, only the records reachable from them are interned
+     */
+    private static final List<String> CATALOG_ROOTS = List.of("Supplier", "Product", "Availability", "AvailabilityCalendar");
+
+    private final GenerateDTOsTask task;
+
+    /**
+     * Names of the records reachable from {@link #CATALOG_ROOTS}, computed on first use
+     */
+    private Set<String> catalogRecords;
+
+    TypeAdapterGenerator(GenerateDTOsTask task) {
+        this.task = task;
+    }
+
+    /**
+     * Triggers creation of an adapter for every registered record & enum, and the factory tying them together
+     */
+    void generate() {
+        for (var dto : task.classes.values()) {
+            createRecordAdapter(dto);
+        }
+        for (var entry : task.enums.entrySet()) {
+            createEnumAdapter(entry.getKey(), entry.getValue());
+        }
+        createFactory();
+    }
+
+    /**
+     * Name of the adapter field holding the TypeAdapter for the given type, e.g. UnitItem -> unitItemAdapter
+     */
+    private static String adapterField(String type) {
+        return Character.toLowerCase(type.charAt(0)) + type.substring(1) + "Adapter";
+    }
+
+    /**
+     * Collects the types the record adapter has to look up from Gson, as adapter field name -> type name
+     */
+    private static Map<String, String> delegates(GenerateDTOsTask.DtoClass dto) {
+        var delegates = new TreeMap<String, String>();
+        for (var field : dto.fields) {
+            var type = field.type.element != null ? field.type.element : field.type;
+            if (field.type.element != null || !INLINE_TYPES.contains(type.type)) {
+                delegates.put(adapterField(type.type), type.type);
+            }
+        }
+        return delegates;
+    }
+
+    private String readExpression(GenerateDTOsTask.Type type) {
+        if (type.element != null) {
+            var method = task.listType.equals("List") ? "readCompactList" : "readList";
+            return "JsonValues." + method + "(in, " + adapterField(type.element.type) + ")";
+        }
+        if (INLINE_TYPES.contains(type.type)) {
+            return "JsonValues.read" + GenerateDTOsTask.capitalize(type.type.toLowerCase()) + "(in)";
+        }
+        return adapterField(type.type) + ".read(in)";
+    }
+
+    private static String writeStatement(GenerateDTOsTask.Type type, String value) {
+        if (type.element != null) {
+            return "JsonValues.writeList(out, " + value + ", " + adapterField(type.element.type) + ");";
+        }
+        return switch (type.type) {
+            case "String", "Boolean", "Integer" -> "out.value(" + value + ");";
+            case "UUID", "URL", "URI" -> "JsonValues.write" + GenerateDTOsTask.capitalize(type.type.toLowerCase()) + "(out, " + value + ");";
+            default -> adapterField(type.type) + ".write(out, " + value + ");";
+        };
+    }
+
+    /**
+     * True for the values worth canonicalizing with an Interner: strings, enums & value records, and lists of those
+     * when they're immutable (listType=List). A shared ArrayList would be mutable by every record holding it.
+     */
+    private boolean isInternable(GenerateDTOsTask.Type type) {
+        if (type.element != null) {
+            var element = type.element;
+            return task.listType.equals("List") && element.element == null
+                    && (element.type.equals("String") || task.enums.containsKey(element.type) || isValueRecord(task.classes.get(element.type)));
+        }
+        return type.type.equals("String");
+    }
+
+    /**
+     * True for the records read as part of the catalog, i.e. reachable from {@link #CATALOG_ROOTS}. Booking, contact
+     * & request records aren't, and aren't interned: their personal data would be kept by the intern table.
+     */
+    private boolean isCatalogRecord(GenerateDTOsTask.DtoClass dto) {
+        if (catalogRecords == null) {
+            catalogRecords = new HashSet<>();
+            var pending = new ArrayDeque<>(CATALOG_ROOTS);
+            while (!pending.isEmpty()) {
+                var record = task.classes.get(pending.pop());
+                if (record == null || !catalogRecords.add(record.name)) {
+                    continue;
+                }
+                for (var field : record.fields) {
+                    pending.push(field.type.element != null ? field.type.element.type : field.type.type);
+                }
+            }
+        }
+        return dto.pathPrefix == null && catalogRecords.contains(dto.name) && !dto.name.contains("Contact");
+    }
+
+    /**
+     * True for small catalog records made only of scalars, enums & lists of those, e.g. OpeningHours or
+     * UnitRestrictions. Records with a URL are excluded, URL.hashCode() resolves the host.
+     */
+    private boolean isValueRecord(GenerateDTOsTask.DtoClass dto) {
+        if (dto == null || !isCatalogRecord(dto)) {
+            return false;
+        }
+        for (var field : dto.fields) {
+            var type = field.type.element != null ? field.type.element : field.type;
+            if (type.element != null || task.classes.containsKey(type.type) || type.type.equals("URL")
+                    || (field.type.element != null && !task.listType.equals("List"))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a TypeAdapter reading & writing the record's components straight from/to the JSON token stream
+     */
+    private void createRecordAdapter(GenerateDTOsTask.DtoClass dto) {
+        var format = """
+                package io.bokun.octo.gson;
+
+                import java.io.IOException;
+                import java.net.URI;
+                import java.net.URL;
+                import java.time.LocalDate;
+                import java.time.ZonedDateTime;
+                import java.util.ArrayList;
+                import java.util.List;
+                import java.util.UUID;
+                import com.google.gson.Gson;
+                import com.google.gson.TypeAdapter;
+                import com.google.gson.stream.JsonReader;
+                import com.google.gson.stream.JsonToken;
+                import com.google.gson.stream.JsonWriter;
+                import io.bokun.octo.*;
+                import io.bokun.octo.requestBody.*;
+
+                /**
+                 * Gson adapter for {@link %s} (auto-generated).
+                 */
+                final class %sTypeAdapter extends RecordTypeAdapter<%s> {
+                %s
+
+                    %sTypeAdapter(Gson gson, Interner interner, SerializationListener listener) {
+                        super(%s.class, interner, listener);
+                %s
+                    }
+
+                    @Override
+                    void writeFields(JsonWriter out, %s value) throws IOException {
+                        if (value == null) {
+                            out.nullValue();
+                            return;
+                        }
+                        out.beginObject();
+                %s
+                        out.endObject();
+                    }
+
+                    @Override
+                    long fieldMask(String jsonName) {
+                        return switch (jsonName) {
+                %s
+                            default -> 0L;
+                        };
+                    }
+
+                    @Override
+                    %s readFields(JsonReader in, long fields) throws IOException {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            return null;
+                        }
+                %s
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            switch (in.nextName()) {
+                %s
+                                default -> in.skipValue();
+                            }
+                        }
+                        in.endObject();
+                %s
+                        return %s;
+                    }
+                }
+                """;
+
+        var delegates = delegates(dto);
+        var fieldDeclarations = new ArrayList<String>();
+        var fieldInitializers = new ArrayList<String>();
+        for (var entry : delegates.entrySet()) {
+            fieldDeclarations.add("    private final TypeAdapter<" + entry.getValue() + "> " + entry.getKey() + ";");
+            var initializer = DATE_ADAPTERS.getOrDefault(entry.getValue(), "gson.getAdapter(" + entry.getValue() + ".class)");
+            fieldInitializers.add("        this." + entry.getKey() + " = " + initializer + ";");
+        }
+
+        // Every field has a bit in the projection mask of readFields(JsonReader, long)
+        if (dto.fields.size() > 64) {
+            throw new RuntimeException("createRecordAdapter: " + dto.name + " has more than 64 fields");
+        }
+
+        var writes = new ArrayList<String>();
+        var masks = new ArrayList<String>();
+        var locals = new ArrayList<String>();
+        var cases = new ArrayList<String>();
+        var arguments = new ArrayList<String>();
+        var listSizes = new ArrayList<String>();
+        for (int i = 0; i < dto.fields.size(); i++) {
+            var field = dto.fields.get(i);
+            var mask = String.format("0x%xL", 1L << i);
+            writes.add("        out.name(\"" + field.jsonName + "\");\n        "
+                    + writeStatement(field.type, "value." + field.name + "()"));
+            masks.add("            case \"" + field.jsonName + "\" -> " + mask + ";");
+            locals.add("        " + field.type.type + " " + field.name + " = null;");
+            var read = readExpression(field.type);
+            if (isCatalogRecord(dto) && isInternable(field.type)) {
+                read = "intern(" + read + ")";
+            }
+            cases.add("                case \"" + field.jsonName + "\" -> " + field.name + " = (fields & " + mask + ") != 0 ? "
+                    + read + " : JsonValues.skip(in);");
+            arguments.add(field.name);
+            if (field.type.element != null) {
+                listSizes.add("        reportListSize(\"" + dto.name + "." + field.jsonName + "\", " + field.name + ");");
+            }
+        }
+
+        task.createJavaFile(dto.name + "TypeAdapter", String.format(
+                format,
+                dto.name,
+                dto.name,
+                dto.name,
+                String.join("\n", fieldDeclarations),
+                dto.name,
+                dto.name,
+                String.join("\n", fieldInitializers),
+                dto.name,
+                String.join("\n", writes),
+                String.join("\n", masks),
+                dto.name,
+                String.join("\n", locals),
+                String.join("\n", cases),
+                String.join("\n", listSizes),
+                isValueRecord(dto)
+                        ? "intern(new " + dto.name + "(" + String.join(", ", arguments) + "))"
+                        : "new " + dto.name + "(" + String.join(", ", arguments) + ")"
+        ).replace("in.endObject();\n\n        return", "in.endObject();\n        return"), PACKAGE);
+    }
+
+    /**
+     * Creates a TypeAdapter mapping the enum to its constant names, unknown values are read as null like Gson does
+     * and reported to {@code UnknownEnumValues}
+     */
+    private void createEnumAdapter(String name, ArrayList<String> items) {
+        var format = """
+                package io.bokun.octo.gson;
+
+                import java.io.IOException;
+                import com.google.gson.TypeAdapter;
+                import com.google.gson.stream.JsonReader;
+                import com.google.gson.stream.JsonToken;
+                import com.google.gson.stream.JsonWriter;
+                import io.bokun.octo.%s;
+
+                /**
+                 * Gson adapter for {@link %s} (auto-generated).
+                 */
+                final class %sTypeAdapter extends TypeAdapter<%s> {
+                    @Override
+                    public void write(JsonWriter out, %s value) throws IOException {
+                        out.value(value == null ? null : value.name());
+                    }
+
+                    @Override
+                    public %s read(JsonReader in) throws IOException {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            return null;
+                        }
+                        var value = in.nextString();
+                        return switch (value) {
+                %s
+                            default -> UnknownEnumValues.unknown(in, value);
+                        };
+                    }
+                }
+                """;
+
+        var cases = items.stream()
+                .map((item) -> "            case \"" + item + "\" -> " + name + "." + item + ";")
+                .toList();
+
+        task.createJavaFile(name + "TypeAdapter", String.format(
+                format,
+                name,
+                name,
+                name,
+                name,
+                name,
+                name,
+                String.join("\n", cases)
+        ), PACKAGE);
+    }
+
+    /**
+     * Creates the public TypeAdapterFactory handing out the generated adapters
+     */
+    private void createFactory() {
+        var format = """
+                package io.bokun.octo.gson;
+
+                import com.google.gson.Gson;
+                import com.google.gson.TypeAdapter;
+                import com.google.gson.TypeAdapterFactory;
+                import com.google.gson.reflect.TypeToken;
+
+                /**
+                 * Registers the reflection-free adapters of all OCTO DTOs and enums (auto-generated). Their ZonedDateTime
+                 * and LocalDate fields use ISO-8601 adapters of their own, so date adapters registered elsewhere on the
+                 * Gson are neither overridden nor used for the DTOs.
+                 * <p>
+                 * Usage: {@code new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory()).create()}
+                 * <p>
+                 * Catalog loads can pass an {@link Interner} to canonicalize the strings, lists and small records that
+                 * repeat across products, see {@link #OctoTypeAdapterFactory(Interner)}, and a
+                 * {@link SerializationListener} to measure the (de)serialization of every DTO type.
+                 */
+                public final class OctoTypeAdapterFactory implements TypeAdapterFactory {
+                    private final Interner interner;
+                    private final SerializationListener listener;
+
+                    public OctoTypeAdapterFactory() {
+                        this(null);
+                    }
+
+                    /**
+                     * Catalog records read by the adapters share equal strings and small records such as OpeningHours
+                     * through the interner, and with listType=List their immutable lists of strings and enums too.
+                     * Booking, contact and request records are never interned.
+                     *
+                     * @param interner the intern table, null to disable interning
+                     */
+                    public OctoTypeAdapterFactory(Interner interner) {
+                        this(interner, SerializationListener.NOOP);
+                    }
+
+                    /**
+                     * @param interner the intern table, null to disable interning
+                     * @param listener notified of the reads and writes of every record, e.g. {@link SerializationMetrics}
+                     */
+                    public OctoTypeAdapterFactory(Interner interner, SerializationListener listener) {
+                        this.interner = interner;
+                        this.listener = listener == null ? SerializationListener.NOOP : listener;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                        TypeAdapter<?> adapter = switch (type.getRawType().getName()) {
+                %s
+                            default -> null;
+                        };
+                        return (TypeAdapter<T>) adapter;
+                    }
+                }
+                """;
+
+        var cases = new ArrayList<String>();
+        for (var dto : task.classes.values()) {
+            cases.add("            case \"" + dto.qualifiedName() + "\" -> new " + dto.name + "TypeAdapter(gson, interner, listener);");
+        }
+        for (var name : new TreeSet<>(task.enums.keySet())) {
+            cases.add("            case \"io.bokun.octo." + name + "\" -> new " + name + "TypeAdapter();");
+        }
+
+        task.createJavaFile("OctoTypeAdapterFactory", String.format(format, String.join("\n", cases)), PACKAGE);
+    }
+}
@@ -0,0 +1,167 @@
+package io.bokun.octo.gradle;
+
+import java.util.*;
+
+/**
+ * Generates a reflection-free validator for every DTO registered by {@link GenerateDTOsTask}, checking the
+ * required (@Nonnull) fields & list elements down the whole tree, plus the public OctoValidators entry point
+ */
+class ValidatorGenerator {
+    static final String PACKAGE = "validation";
+
+    private final GenerateDTOsTask task;
+
+    ValidatorGenerator(GenerateDTOsTask task) {
+        this.task = task;
+    }
+
+    void generate() {
+        for (var dto : task.classes.values()) {
+            createValidator(dto);
+        }
+        createEntryPoint();
+    }
+
+    /**
+     * Method reference to the element check of a list, null if the elements are scalars or enums
+     */
+    private String elementReference(GenerateDTOsTask.Type element, String method) {
+        return task.classes.containsKey(element.type) ? element.type + "Validator::" + method : "null";
+    }
+
+    /**
+     * Creates the validator of a record: isValid only checks & allocates nothing, collect builds the violations
+     */
+    private void createValidator(GenerateDTOsTask.DtoClass dto) {
+        var format = """
+                package io.bokun.octo.validation;
+
+                import java.util.List;
+                import io.bokun.octo.*;
+                import io.bokun.octo.requestBody.*;
+
+                /**
+                 * Validator for {@link %s} (auto-generated).
+                 */
+                final class %sValidator {
+                    private %sValidator() {
+                    }
+
+                    static boolean isValid(%s value) {
+                %s
+                        return true;
+                    }
+
+                    static void collect(%s value, String path, List<Violation> violations) {
+                %s
+                    }
+                }
+                """;
+
+        var checks = new ArrayList<String>();
+        var collects = new ArrayList<String>();
+        for (var field : dto.fields) {
+            var value = "value." + field.name + "()";
+            var path = "path + \"." + field.jsonName + "\"";
+            var nonnull = field.type.isNonnull();
+
+            if (nonnull) {
+                checks.add("        if (" + value + " == null) {\n            return false;\n        }");
+                collects.add("        if (" + value + " == null) {\n            violations.add(new Violation(" + path + ", \"is required\"));\n        }");
+            }
+
+            var element = field.type.element;
+            if (element != null) {
+                var nullableElements = element.nullable ? "true" : "false";
+                checks.add("        if (" + value + " != null && !Validation.isValidList(" + value + ", " + nullableElements + ", "
+                        + elementReference(element, "isValid") + ")) {\n            return false;\n        }");
+                collects.add("        if (" + value + " != null) {\n            Validation.collectList(" + value + ", " + nullableElements + ", "
+                        + elementReference(element, "collect") + ", " + path + ", violations);\n        }");
+            } else if (task.classes.containsKey(field.type.type)) {
+                var validator = field.type.type + "Validator";
+                checks.add("        if (" + value + " != null && !" + validator + ".isValid(" + value + ")) {\n            return false;\n        }");
+                collects.add("        if (" + value + " != null && !" + validator + ".isValid(" + value + ")) {\n            "
+                        + validator + ".collect(" + value + ", " + path + ", violations);\n        }");
+            }
+        }
+
+        task.createJavaFile(dto.name + "Validator", String.format(
+                format,
+                dto.name,
+                dto.name,
+                dto.name,
+                dto.name,
+                String.join("\n", checks),
+                dto.name,
+                String.join("\n", collects)
+        ).replace("\n\n        return true;", "\n        return true;").replace("{\n\n    }", "{\n    }"), PACKAGE);
+    }
+
+    /**
+     * Creates the public OctoValidators class dispatching on the DTO class
+     */
+    private void createEntryPoint() {
+        var format = """
+                package io.bokun.octo.validation;
+
+                import java.util.List;
+                import io.bokun.octo.*;
+                import io.bokun.octo.gson.UnknownEnumValues;
+                import io.bokun.octo.requestBody.*;
+
+                /**
+                 * Validates DTOs against the spec without reflection (auto-generated): required fields must be set and
+                 * list elements must not be null, in the DTO and every record nested in it.
+                 * <p>
+                 * Enum values unknown to the spec are read as null by the Gson adapters. Pass the
+                 * {@link UnknownEnumValues} recorded while reading the DTO to
+                 * {@link #validate(Object, UnknownEnumValues)} to report them, nullable enums included. Valid DTOs are
+                 * checked without allocating.
+                 */
+                public final class OctoValidators {
+                    private OctoValidators() {
+                    }
+
+                    /**
+                     * @return all violations of the DTO with their JSON paths, an empty list if it's valid
+                     * @throws IllegalArgumentException if the value isn't a generated DTO
+                     */
+                    public static List<Violation> validate(Object value) {
+                        return switch (value.getClass().getName()) {
+                %s
+                            default -> throw new IllegalArgumentException("Not an OCTO DTO: " + value.getClass().getName());
+                        };
+                    }
+
+                    /**
+                     * @param unknownEnumValues the unknown enum values recorded while reading the DTO
+                     * @return all violations of the DTO and its unknown enum values with their JSON paths, an empty list
+                     * if it's valid
+                     * @throws IllegalArgumentException if the value isn't a generated DTO
+                     */
+                    public static List<Violation> validate(Object value, UnknownEnumValues unknownEnumValues) {
+                        return Validation.withUnknownEnumValues(validate(value), unknownEnumValues.values());
+                    }
+
+                    /**
+                     * @throws OctoValidationException if the DTO has violations
+                     */
+                    public static <T> T requireValid(T value) {
+                        var violations = validate(value);
+                        if (!violations.isEmpty()) {
+                            throw new OctoValidationException(violations);
+                        }
+                        return value;
+                    }
+                }
+                """;
+
+        var cases = new ArrayList<String>();
+        for (var dto : task.classes.values()) {
+            cases.add("            case \"" + dto.qualifiedName() + "\" -> Validation.validate((" + dto.name + ") value, "
+                    + dto.name + "Validator::isValid, " + dto.name + "Validator::collect);");
+        }
+
+        task.createJavaFile("OctoValidators", String.format(format, String.join("\n", cases)), PACKAGE);
+    }
+}
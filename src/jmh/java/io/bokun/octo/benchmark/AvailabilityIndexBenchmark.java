@@ -0,0 +1,74 @@
+package io.bokun.octo.benchmark;
+
+import io.bokun.octo.Availability;
+import io.bokun.octo.AvailabilityStatus;
+import io.bokun.octo.availability.AvailabilityIndex;
+import io.bokun.octo.availability.AvailabilityQuery;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Looks up the bookable slots of a two-day window in a year of availability: by scanning the slot list (the
+ * baseline) and through {@link AvailabilityIndex}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AvailabilityIndexBenchmark {
+    private static final String OPTION = "product/DEFAULT";
+    private static final int MIN_VACANCIES = 2;
+
+    private ArrayList<Availability> slots;
+    private AvailabilityIndex index;
+    private AvailabilityQuery query;
+    private Instant from;
+    private Instant to;
+
+    @Setup
+    public void setUp() {
+        var gson = Gsons.generated();
+        slots = gson.fromJson(Payloads.scaled("Availability"), Payloads.listType("Availability"));
+        index = new AvailabilityIndex();
+        index.put(OPTION, slots);
+
+        from = slots.get(slots.size() / 2).localDateTimeStart().toInstant();
+        to = from.plus(2, ChronoUnit.DAYS);
+        query = AvailabilityQuery.startingBetween(from, to)
+                .statuses(AvailabilityStatus.AVAILABLE, AvailabilityStatus.LIMITED, AvailabilityStatus.FREESALE)
+                .cutoffAfter(from)
+                .minVacancies(MIN_VACANCIES);
+    }
+
+    @Benchmark
+    public List<Availability> linearScan() {
+        var found = new ArrayList<Availability>();
+        for (var slot : slots) {
+            var start = slot.localDateTimeStart().toInstant();
+            if (!start.isBefore(from) && start.isBefore(to)
+                    && (slot.status() == AvailabilityStatus.AVAILABLE || slot.status() == AvailabilityStatus.LIMITED || slot.status() == AvailabilityStatus.FREESALE)
+                    && slot.utcCutoffAt().toInstant().isAfter(from)
+                    && (slot.vacancies() == null || slot.vacancies() >= MIN_VACANCIES)) {
+                found.add(slot);
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public List<Availability> indexFind() {
+        return index.find(OPTION, query);
+    }
+
+    @Benchmark
+    public Availability indexFirst() {
+        return index.first(OPTION, query);
+    }
+}
@@ -0,0 +1,45 @@
+package io.bokun.octo.benchmark;
+
+import io.bokun.octo.binary.BinaryCodec;
+import io.bokun.octo.binary.OctoBinaryCodecs;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes the scaled up payloads with the generated binary codecs, to compare with the JSON benchmarks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryCodecBenchmark {
+    @Param({"Product", "Availability", "AvailabilityCalendar", "Booking"})
+    public String dtoType;
+
+    private BinaryCodec<ArrayList<Object>> codec;
+    private ArrayList<Object> records;
+    private byte[] bytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        var gson = Gsons.named("generated");
+        codec = BinaryCodec.listOf((BinaryCodec<Object>) OctoBinaryCodecs.forType(Payloads.dtoClass(dtoType)));
+        records = gson.fromJson(Payloads.scaled(dtoType), Payloads.listType(dtoType));
+        bytes = codec.encode(records);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(records);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(bytes);
+    }
+}
@@ -0,0 +1,118 @@
+package io.bokun.octo.benchmark;
+
+import io.bokun.octo.Availability;
+import io.bokun.octo.Booking;
+import io.bokun.octo.Product;
+import io.bokun.octo.requestBody.PostAvailability;
+import io.bokun.octo.requestBody.PostBookingsUuidConfirm;
+import io.bokun.octo.server.OctoDispatcher;
+import io.bokun.octo.server.OctoResponse;
+import io.bokun.octo.server.OctoService;
+import io.bokun.octo.server.OctoServiceException;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches requests in-process to an {@link OctoService} answering from memory, to measure the routing, binding
+ * and validation overhead of the generated {@link OctoDispatcher} without any network
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatcherBenchmark {
+    /**
+     * Slots of a day in the availability response
+     */
+    private static final int DAY_SLOTS = 10;
+
+    @Param({"getProduct", "postAvailability", "confirmBooking", "notFound"})
+    public String request;
+
+    private OctoDispatcher dispatcher;
+    private String method;
+    private String target;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        var gson = Gsons.generated();
+        ArrayList<Product> products = gson.fromJson(Payloads.scaled("Product"), Payloads.listType("Product"));
+        ArrayList<Availability> availability = gson.fromJson(Payloads.scaled("Availability"), Payloads.listType("Availability"));
+        ArrayList<Booking> bookings = gson.fromJson(Payloads.scaled("Booking"), Payloads.listType("Booking"));
+
+        var productsById = new HashMap<String, Product>();
+        products.forEach((product) -> productsById.put(product.id(), product));
+        var bookingsByUuid = new HashMap<String, Booking>();
+        bookings.forEach((booking) -> bookingsByUuid.put(booking.uuid().toString(), booking));
+        var day = new ArrayList<>(availability.subList(0, Math.min(DAY_SLOTS, availability.size())));
+
+        dispatcher = new OctoDispatcher(new InMemoryService(productsById, day, bookingsByUuid), gson);
+
+        var product = products.get(products.size() / 2);
+        var booking = bookings.get(bookings.size() / 2);
+        switch (request) {
+            case "getProduct" -> {
+                method = "GET";
+                target = "/products/" + product.id();
+            }
+            case "postAvailability" -> {
+                method = "POST";
+                target = "/availability";
+                body = json("{\"productId\": \"" + product.id() + "\", \"optionId\": \"DEFAULT\", \"localDate\": \"2022-06-30\"}");
+            }
+            case "confirmBooking" -> {
+                method = "POST";
+                target = "/bookings/" + booking.uuid() + "/confirm";
+                body = json("{\"resellerReference\": \"R-1\", \"contact\": {\"fullName\": \"John Doe\", \"emailAddress\": \"john@example.com\"}}");
+            }
+            case "notFound" -> {
+                method = "GET";
+                target = "/bookings/" + booking.uuid() + "/unknown";
+            }
+            default -> throw new IllegalArgumentException("Unknown request " + request);
+        }
+    }
+
+    private static byte[] json(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public OctoResponse dispatch() {
+        return dispatcher.dispatch(method, target, body);
+    }
+
+    private record InMemoryService(Map<String, Product> products, ArrayList<Availability> day, Map<String, Booking> bookings) implements OctoService {
+        @Override
+        public Product getProductsId(String id) {
+            var product = products.get(id);
+            if (product == null) {
+                throw new OctoServiceException(400, "INVALID_PRODUCT_ID", "The productId was missing or invalid").withDetail("productId", id);
+            }
+            return product;
+        }
+
+        @Override
+        public ArrayList<Availability> postAvailability(PostAvailability body) {
+            getProductsId(body.productId());
+            return day;
+        }
+
+        @Override
+        public Booking postBookingsUuidConfirm(String uuid, PostBookingsUuidConfirm body) {
+            var booking = bookings.get(uuid);
+            if (booking == null) {
+                throw new OctoServiceException(400, "INVALID_BOOKING_UUID", "The uuid was missing or invalid").withDetail("uuid", uuid);
+            }
+            return booking;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.bokun.octo.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import io.bokun.octo.gson.OctoTypeAdapterFactory;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Function;
+
+/**
+ * The Gson configurations benchmarked against each other
+ */
+final class Gsons {
+    private Gsons() {
+    }
+
+    /**
+     * @param name "reflective" for Gson's reflective record adapters with DateTimeFormatter based date adapters
+     *             (the baseline), "generated" for the generated adapters of {@link OctoTypeAdapterFactory}
+     */
+    static Gson named(String name) {
+        return switch (name) {
+            case "reflective" -> reflective();
+            case "generated" -> generated();
+            default -> throw new IllegalArgumentException("Unknown Gson configuration " + name);
+        };
+    }
+
+    static Gson reflective() {
+        return new GsonBuilder()
+                .registerTypeAdapter(ZonedDateTime.class, formatterAdapter(
+                        (value) -> ZonedDateTime.parse(value, DateTimeFormatter.ISO_ZONED_DATE_TIME),
+                        DateTimeFormatter.ISO_OFFSET_DATE_TIME::format))
+                .registerTypeAdapter(LocalDate.class, formatterAdapter(
+                        (value) -> LocalDate.parse(value, DateTimeFormatter.ISO_LOCAL_DATE),
+                        DateTimeFormatter.ISO_LOCAL_DATE::format))
+                .create();
+    }
+
+    static Gson generated() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new OctoTypeAdapterFactory())
+                .create();
+    }
+
+    private static <T> TypeAdapter<T> formatterAdapter(Function<String, T> parse, Function<T, String> format) {
+        return new TypeAdapter<>() {
+            @Override
+            public void write(JsonWriter out, T value) throws IOException {
+                out.value(value == null ? null : format.apply(value));
+            }
+
+            @Override
+            public T read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                return parse.apply(in.nextString());
+            }
+        };
+    }
+}
@@ -0,0 +1,159 @@
+package io.bokun.octo.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Benchmark payloads, built from the examples the build extracts from OCTO-API.yaml (see extractBenchmarkExamples)
+ * and scaled up to realistic response sizes.
+ */
+final class Payloads {
+    static final int CATALOG_PRODUCTS = 1000;
+    static final int CALENDAR_DAYS = 365;
+    static final int AVAILABILITY_DAYS = 365;
+    static final int BOOKINGS = 100;
+
+    private Payloads() {
+    }
+
+    /**
+     * @return the JSON array of the scaled up payload for the given DTO type, the same for every Gson configuration
+     */
+    static String scaled(String dtoType) {
+        var examples = examples(dtoType);
+        var scaled = switch (dtoType) {
+            case "Product" -> catalog(examples);
+            case "AvailabilityCalendar" -> calendar(examples);
+            case "Availability" -> availability(examples);
+            case "Booking" -> bookings(examples);
+            default -> throw new IllegalArgumentException("No examples for " + dtoType);
+        };
+        return scaled.toString();
+    }
+
+    static Class<?> dtoClass(String dtoType) {
+        try {
+            return Class.forName("io.bokun.octo." + dtoType);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown DTO " + dtoType, e);
+        }
+    }
+
+    static Type listType(String dtoType) {
+        return TypeToken.getParameterized(ArrayList.class, dtoClass(dtoType)).getType();
+    }
+
+    /**
+     * Loads the examples of the DTO type, leaving out the ones the benchmarked Gson configurations can't all bind (the
+     * spec has a few typos, e.g. "null" as a string for an integer), so every configuration runs on the same payload
+     */
+    private static List<JsonObject> examples(String dtoType) {
+        var gsons = List.of(Gsons.reflective(), Gsons.generated());
+        var resource = Payloads.class.getResourceAsStream("/octo-examples/" + dtoType + ".json");
+        if (resource == null) {
+            throw new IllegalStateException("Examples for " + dtoType + " not found, run the extractBenchmarkExamples task");
+        }
+
+        var examples = new ArrayList<JsonObject>();
+        try (var reader = new InputStreamReader(resource, StandardCharsets.UTF_8)) {
+            for (var example : JsonParser.parseReader(reader).getAsJsonArray()) {
+                try {
+                    for (var gson : gsons) {
+                        gson.fromJson(example, dtoClass(dtoType));
+                    }
+                    examples.add(example.getAsJsonObject());
+                } catch (RuntimeException e) {
+                    // not a valid payload, skip it
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (examples.isEmpty()) {
+            throw new IllegalStateException("No usable examples for " + dtoType);
+        }
+        return examples;
+    }
+
+    /**
+     * A catalog of {@link #CATALOG_PRODUCTS} products, cycling through the examples with unique ids
+     */
+    private static JsonArray catalog(List<JsonObject> examples) {
+        var catalog = new JsonArray(CATALOG_PRODUCTS);
+        for (int i = 0; i < CATALOG_PRODUCTS; i++) {
+            var product = examples.get(i % examples.size()).deepCopy();
+            product.addProperty("id", product.get("id").getAsString() + "-" + i);
+            catalog.add(product);
+        }
+        return catalog;
+    }
+
+    /**
+     * A calendar of {@link #CALENDAR_DAYS} consecutive days, cycling through the example days
+     */
+    private static JsonArray calendar(List<JsonObject> examples) {
+        var start = LocalDate.parse(examples.get(0).get("localDate").getAsString());
+        var calendar = new JsonArray(CALENDAR_DAYS);
+        for (int i = 0; i < CALENDAR_DAYS; i++) {
+            var day = examples.get(i % examples.size()).deepCopy();
+            day.addProperty("localDate", start.plusDays(i).toString());
+            calendar.add(day);
+        }
+        return calendar;
+    }
+
+    /**
+     * All example slots repeated on {@link #AVAILABILITY_DAYS} consecutive days
+     */
+    private static JsonArray availability(List<JsonObject> examples) {
+        var availability = new JsonArray(AVAILABILITY_DAYS * examples.size());
+        for (int i = 0; i < AVAILABILITY_DAYS; i++) {
+            for (var example : examples) {
+                var slot = example.deepCopy();
+                for (var field : List.of("id", "localDateTimeStart", "localDateTimeEnd", "utcCutoffAt")) {
+                    slot.add(field, plusDays(slot.get(field), i));
+                }
+                availability.add(slot);
+            }
+        }
+        return availability;
+    }
+
+    private static JsonElement plusDays(JsonElement dateTime, int days) {
+        if (dateTime == null || dateTime.isJsonNull()) {
+            return dateTime;
+        }
+        return new JsonPrimitive(OffsetDateTime.parse(dateTime.getAsString()).plusDays(days).toString());
+    }
+
+    /**
+     * {@link #BOOKINGS} bookings, cycling through the examples with unique ids
+     */
+    private static JsonArray bookings(List<JsonObject> examples) {
+        var bookings = new JsonArray(BOOKINGS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            var booking = examples.get(i % examples.size()).deepCopy();
+            var uuid = UUID.nameUUIDFromBytes(("booking-" + i).getBytes(StandardCharsets.UTF_8)).toString();
+            booking.addProperty("id", uuid);
+            booking.addProperty("uuid", uuid);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+}
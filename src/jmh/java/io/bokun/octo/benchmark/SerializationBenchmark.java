@@ -0,0 +1,40 @@
+package io.bokun.octo.benchmark;
+
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a scaled up response (1k product catalog, 365 day calendar, ...) from the generated records
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"Product", "Availability", "AvailabilityCalendar", "Booking"})
+    public String dtoType;
+
+    @Param({"reflective", "generated"})
+    public String gson;
+
+    private Gson instance;
+    private Type listType;
+    private Object records;
+
+    @Setup
+    public void setUp() {
+        instance = Gsons.named(gson);
+        listType = Payloads.listType(dtoType);
+        records = instance.fromJson(Payloads.scaled(dtoType), listType);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return instance.toJson(records, listType);
+    }
+}
@@ -0,0 +1,64 @@
+package io.bokun.octo.benchmark;
+
+import com.google.gson.Gson;
+import io.bokun.octo.json.ByteBufferPool;
+import io.bokun.octo.json.JsonEncoder;
+import io.bokun.octo.json.OctoJsonEncoders;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the scaled up responses to UTF-8 bytes: through Gson.toJson and String.getBytes (the baseline), with the
+ * generated encoders to a byte array, and with the generated encoders to pooled 16 KB chunks
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Utf8EncoderBenchmark {
+    @Param({"Product", "Availability", "AvailabilityCalendar", "Booking"})
+    public String dtoType;
+
+    private Gson gson;
+    private Type listType;
+    private List<Object> records;
+    private JsonEncoder<List<Object>> encoder;
+    private ByteBufferPool pool;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        gson = Gsons.generated();
+        listType = Payloads.listType(dtoType);
+        records = gson.fromJson(Payloads.scaled(dtoType), listType);
+        encoder = JsonEncoder.listOf((JsonEncoder<Object>) OctoJsonEncoders.forType(Payloads.dtoClass(dtoType)));
+        pool = new ByteBufferPool(16 * 1024, 16);
+    }
+
+    @Benchmark
+    public byte[] gsonToBytes() {
+        return gson.toJson(records, listType).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeToArray() {
+        return encoder.encode(records);
+    }
+
+    @Benchmark
+    public int encodeToChunks() throws IOException {
+        var length = new int[1];
+        encoder.encode(records, pool, (chunk) -> {
+            length[0] += chunk.remaining();
+            pool.release(chunk);
+        });
+        return length[0];
+    }
+}
@@ -0,0 +1,122 @@
+package io.bokun.octo;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable list backed by an array of exactly its size, the list type of the DTOs generated with
+ * {@code listType=List}. All empty lists are one shared instance.
+ * <p>
+ * Unlike {@link List#of}, null elements are allowed, as some OCTO arrays have nullable items. The list can't be
+ * modified, so records holding it can be shared between threads without defensive copies.
+ */
+public final class CompactList<E> extends AbstractList<E> implements RandomAccess {
+    private static final CompactList<?> EMPTY = new CompactList<>(new Object[0]);
+
+    private final Object[] elements;
+
+    private CompactList(Object[] elements) {
+        this.elements = elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> List<E> empty() {
+        return (List<E>) EMPTY;
+    }
+
+    /**
+     * @return an immutable copy of the collection, or the collection itself if it's already a CompactList
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> List<E> copyOf(Collection<? extends E> collection) {
+        if (collection instanceof CompactList<?>) {
+            return (List<E>) collection;
+        }
+        return of(collection.toArray());
+    }
+
+    /**
+     * @return like {@link #copyOf(Collection)}, or null if the collection is null; used by the compact constructors
+     * of the records generated with {@code listType=List}
+     */
+    public static <E> List<E> copyOfNullable(Collection<? extends E> collection) {
+        return collection == null ? null : copyOf(collection);
+    }
+
+    private static <E> List<E> of(Object[] elements) {
+        return elements.length == 0 ? empty() : new CompactList<>(elements);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, elements.length);
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        for (int i = 0; i < elements.length; i++) {
+            if (Objects.equals(o, elements[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.clone();
+    }
+
+    /**
+     * Collects the elements of a list being read, e.g. from a JSON array. The builder can't be used after
+     * {@link #build()}.
+     */
+    public static final class Builder<E> {
+        private Object[] elements;
+        private int size;
+
+        public Builder() {
+            this(10);
+        }
+
+        /**
+         * @param expectedSize the number of elements, build() doesn't copy them if exactly that many are added
+         */
+        public Builder(int expectedSize) {
+            this.elements = new Object[expectedSize];
+        }
+
+        public Builder<E> add(E element) {
+            if (elements == null) {
+                throw new IllegalStateException("The list was already built");
+            }
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(10, size + (size >> 1)));
+            }
+            elements[size++] = element;
+            return this;
+        }
+
+        public List<E> build() {
+            var built = elements;
+            elements = null;
+            return of(size == built.length ? built : Arrays.copyOf(built, size));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.bokun.octo.availability;
+
+import java.util.List;
+
+/**
+ * The slots of an option that changed between two polls, see {@link AvailabilityDeltaTracker}. Changes are in the
+ * order of the current poll, followed by the removed slots.
+ */
+public record AvailabilityDelta<T>(String optionKey, List<SlotChange<T>> changes) {
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public List<SlotChange<T>> added() {
+        return changes.stream().filter(SlotChange::isAdded).toList();
+    }
+
+    public List<SlotChange<T>> removed() {
+        return changes.stream().filter(SlotChange::isRemoved).toList();
+    }
+
+    public List<SlotChange<T>> statusChanges() {
+        return changes.stream().filter(SlotChange::statusChanged).toList();
+    }
+
+    public List<SlotChange<T>> vacancyChanges() {
+        return changes.stream().filter(SlotChange::vacanciesChanged).toList();
+    }
+}
@@ -0,0 +1,238 @@
+package io.bokun.octo.availability;
+
+import io.bokun.octo.Availability;
+import io.bokun.octo.AvailabilityCalendar;
+import io.bokun.octo.AvailabilityStatus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Turns successive polls of {@code /availability} or {@code /availability/calendar} into the slots that actually
+ * changed, so downstream writes scale with the changes instead of the response size.
+ * <p>
+ * The tracker keeps the last polled slots of every option, keyed by whatever identifies the option for the caller
+ * (e.g. supplier, product and option id). {@link #update(String, List)} compares the new slots to the previous ones
+ * and returns the added, removed and changed slots. Polls are usually in the same order, so slots are first compared
+ * pairwise and only the remainder is matched by key, slots sharing a key in the order they come. When the caller has
+ * the raw response, {@link #update(String, byte[], Function)} compares its fingerprint to the previous one and skips
+ * both decoding and diffing for unchanged options.
+ * <p>
+ * Safe to use from many threads, polls of the same option are applied one at a time. The tracker keeps a reference
+ * to the polled lists, they must not be modified afterwards.
+ */
+public final class AvailabilityDeltaTracker<T> {
+    private static final long NO_FINGERPRINT = 0;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Function<T, String> key;
+    private final Function<T, AvailabilityStatus> status;
+    private final Function<T, Integer> vacancies;
+    private final Map<String, State<T>> states = new ConcurrentHashMap<>();
+
+    private AvailabilityDeltaTracker(Function<T, String> key, Function<T, AvailabilityStatus> status, Function<T, Integer> vacancies) {
+        this.key = key;
+        this.status = status;
+        this.vacancies = vacancies;
+    }
+
+    /**
+     * Tracker for {@code /availability} responses, slots are keyed by their id
+     */
+    public static AvailabilityDeltaTracker<Availability> forAvailability() {
+        return new AvailabilityDeltaTracker<>(Availability::id, Availability::status, Availability::vacancies);
+    }
+
+    /**
+     * Tracker for {@code /availability/calendar} responses, days are keyed by their ISO date
+     */
+    public static AvailabilityDeltaTracker<AvailabilityCalendar> forCalendar() {
+        return new AvailabilityDeltaTracker<>((day) -> String.valueOf(day.localDate()), AvailabilityCalendar::status, AvailabilityCalendar::vacancies);
+    }
+
+    /**
+     * @param fingerprint of the response the slots were decoded from, {@link #NO_FINGERPRINT} if unknown
+     */
+    private record State<T>(List<T> slots, long fingerprint) {
+    }
+
+    /**
+     * Records the current slots of the option, all slots are added on the first poll of an option
+     *
+     * @return the changes since the previous poll of the option
+     */
+    public AvailabilityDelta<T> update(String optionKey, List<T> current) {
+        return update(optionKey, current, NO_FINGERPRINT);
+    }
+
+    /**
+     * Records the current slots of the option from the raw response body. If the body has the same fingerprint as
+     * the previous one, the option is unchanged and the decoder isn't called.
+     *
+     * @param decoder reads the slots from the body, e.g. through Gson
+     */
+    public AvailabilityDelta<T> update(String optionKey, byte[] responseBody, Function<byte[], List<T>> decoder) {
+        long fingerprint = fingerprint(responseBody);
+        // Decoded outside the lock unless the option looks unchanged, which is checked again under the lock
+        var state = states.get(optionKey);
+        var decoded = state != null && state.fingerprint == fingerprint ? null : decoder.apply(responseBody);
+        return update(optionKey, fingerprint, (previous) -> {
+            if (previous != null && previous.fingerprint == fingerprint) {
+                return null;
+            }
+            return decoded != null ? decoded : decoder.apply(responseBody);
+        });
+    }
+
+    private AvailabilityDelta<T> update(String optionKey, List<T> current, long fingerprint) {
+        return update(optionKey, fingerprint, (previous) -> current);
+    }
+
+    /**
+     * Applies a poll under the lock of the option
+     *
+     * @param current the slots of the poll given the previous state, null if the option is unchanged
+     */
+    private AvailabilityDelta<T> update(String optionKey, long fingerprint, Function<State<T>, List<T>> current) {
+        var changes = new ArrayList<List<SlotChange<T>>>(1);
+        states.compute(optionKey, (ignored, previous) -> {
+            var slots = current.apply(previous);
+            if (slots == null) {
+                changes.add(List.of());
+                return previous;
+            }
+            changes.add(diff(previous == null ? List.of() : previous.slots, slots));
+            return new State<>(slots, fingerprint);
+        });
+        return new AvailabilityDelta<>(optionKey, changes.get(0));
+    }
+
+    /**
+     * Drops the state of the option, its next poll reports all slots as added
+     */
+    public void forget(String optionKey) {
+        states.remove(optionKey);
+    }
+
+    /**
+     * @return number of tracked options
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Keys are only computed for the slots that aren't equal to their previous version, once per slot
+     */
+    private List<SlotChange<T>> diff(List<T> previous, List<T> current) {
+        var changes = new ArrayList<SlotChange<T>>();
+        int common = Math.min(previous.size(), current.size());
+        int i = 0;
+        for (; i < common; i++) {
+            var before = previous.get(i);
+            var after = current.get(i);
+            if (before.equals(after)) {
+                continue;
+            }
+            var afterKey = key.apply(after);
+            if (!key.apply(before).equals(afterKey)) {
+                break;
+            }
+            changes.add(change(afterKey, before, after));
+        }
+        if (i == previous.size() && i == current.size()) {
+            return changes;
+        }
+
+        // The polls diverge: match the rest by key, the previous slots left over are the removed ones
+        var remaining = new LinkedHashMap<String, T>();
+        // Previous slots whose key is already in remaining, matched in order once the first one is taken
+        List<Map.Entry<String, T>> duplicates = null;
+        for (int j = i; j < previous.size(); j++) {
+            var before = previous.get(j);
+            var beforeKey = key.apply(before);
+            if (remaining.putIfAbsent(beforeKey, before) != null) {
+                if (duplicates == null) {
+                    duplicates = new ArrayList<>();
+                }
+                duplicates.add(Map.entry(beforeKey, before));
+            }
+        }
+        for (int j = i; j < current.size(); j++) {
+            var after = current.get(j);
+            var afterKey = key.apply(after);
+            var before = remaining.remove(afterKey);
+            if (before != null && duplicates != null) {
+                takeDuplicate(duplicates, afterKey, remaining);
+            }
+            if (before == null) {
+                changes.add(new SlotChange<>(afterKey, null, after, false, false));
+            } else if (!before.equals(after)) {
+                changes.add(change(afterKey, before, after));
+            }
+        }
+        for (var removed : remaining.entrySet()) {
+            changes.add(new SlotChange<>(removed.getKey(), removed.getValue(), null, false, false));
+        }
+        if (duplicates != null) {
+            for (var removed : duplicates) {
+                changes.add(new SlotChange<>(removed.getKey(), removed.getValue(), null, false, false));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Moves the next previous slot with the key, if any, from the duplicates to the remaining slots
+     */
+    private static <T> void takeDuplicate(List<Map.Entry<String, T>> duplicates, String key, Map<String, T> remaining) {
+        for (int i = 0; i < duplicates.size(); i++) {
+            if (duplicates.get(i).getKey().equals(key)) {
+                remaining.put(key, duplicates.remove(i).getValue());
+                return;
+            }
+        }
+    }
+
+    private SlotChange<T> change(String key, T before, T after) {
+        return new SlotChange<>(
+                key,
+                before,
+                after,
+                status.apply(before) != status.apply(after),
+                !Objects.equals(vacancies.apply(before), vacancies.apply(after))
+        );
+    }
+
+    /**
+     * 64-bit fingerprint of a response body, 8 bytes at a time
+     */
+    static long fingerprint(byte[] body) {
+        long hash = mix(0x9E3779B97F4A7C15L ^ body.length);
+        int i = 0;
+        for (; i + 8 <= body.length; i += 8) {
+            hash = mix(hash ^ (long) LONGS.get(body, i));
+        }
+        long tail = 0;
+        for (int shift = 0; i < body.length; i++, shift += 8) {
+            tail |= (body[i] & 0xFFL) << shift;
+        }
+        hash = mix(hash ^ tail);
+        return hash == NO_FINGERPRINT ? 1 : hash;
+    }
+
+    private static long mix(long hash) {
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 31;
+        hash *= 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 29);
+    }
+}
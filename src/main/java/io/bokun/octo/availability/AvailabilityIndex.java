@@ -0,0 +1,265 @@
+package io.bokun.octo.availability;
+
+import io.bokun.octo.Availability;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the {@code /availability} slots of many options, answering questions like "which slots of this
+ * option start this afternoon, are AVAILABLE or LIMITED, can still be booked and have room for 4" without scanning
+ * the slot lists.
+ * <p>
+ * The slots of an option are kept sorted by {@code localDateTimeStart} (then {@code localDateTimeEnd}), in columns of
+ * epoch seconds, over a segment tree holding for every range of slots the latest end, the latest cutoff, the most
+ * vacancies and the statuses present. Time ranges are binary searches, and subtrees where no slot can match one of
+ * the status, cutoff, vacancy or overlap criteria are skipped, see {@link AvailabilityQuery}.
+ * <p>
+ * With a single criterion besides the start range the pruning is exact, and a query visits O(log n) nodes per slot it
+ * returns. The criteria are pruned on separate maxima though, a subtree is only skipped when one criterion fails for
+ * all of its slots. When they're anti-correlated, e.g. slots alternating between a future cutoff without vacancies
+ * and a past cutoff with vacancies queried with {@code cutoffAfter(now).minVacancies(5)}, every node passes and the
+ * query degrades to a scan of the range, O(n), returning nothing.
+ * <p>
+ * Reads are lock-free: every option is an immutable snapshot swapped atomically on update, so lookups never block
+ * and always see a consistent set of slots. Updates of the same option are applied one at a time and rebuild its
+ * snapshot by merging the new slots into the old ones, in O(n + m log m) for m new slots. They fit both full polls
+ * ({@link #put(String, List)}, {@link #replace(String, Instant, Instant, List)}) and the changes reported by
+ * {@link AvailabilityDeltaTracker} ({@link #apply(AvailabilityDelta)}).
+ */
+public final class AvailabilityIndex {
+    private static final Comparator<Availability> ORDER = Comparator
+            .comparingLong((Availability slot) -> slot.localDateTimeStart().toEpochSecond())
+            .thenComparingLong((slot) -> slot.localDateTimeEnd().toEpochSecond())
+            .thenComparing(Availability::id);
+
+    private final Map<String, OptionSlots> options = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces all slots of the option, e.g. with the response of a poll covering every date
+     */
+    public void put(String optionKey, List<Availability> slots) {
+        var sorted = slots.toArray(new Availability[0]);
+        Arrays.sort(sorted, ORDER);
+        options.put(optionKey, new OptionSlots(sorted));
+    }
+
+    /**
+     * Replaces the slots of the option starting at or after {@code from} and before {@code to} with the given ones,
+     * e.g. with the response of a poll for a date range. Slots outside the range are kept unless one of the new slots
+     * has the same id.
+     */
+    public void replace(String optionKey, Instant from, Instant to, List<Availability> slots) {
+        long fromSecond = from.getEpochSecond();
+        long toSecond = to.getEpochSecond();
+        var ids = new HashSet<String>(slots.size() * 2);
+        slots.forEach((slot) -> ids.add(slot.id()));
+        update(optionKey, (slot, start) -> (start < fromSecond || start >= toSecond) && !ids.contains(slot.id()), slots);
+    }
+
+    /**
+     * Applies the changes of a poll: removed slots are dropped, added and changed slots are inserted or replaced
+     */
+    public void apply(AvailabilityDelta<Availability> delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        var ids = new HashSet<String>();
+        var current = new ArrayList<Availability>();
+        for (var change : delta.changes()) {
+            ids.add(change.key());
+            if (!change.isRemoved()) {
+                current.add(change.current());
+            }
+        }
+        update(delta.optionKey(), (slot, start) -> !ids.contains(slot.id()), current);
+    }
+
+    @FunctionalInterface
+    private interface Keep {
+        boolean test(Availability slot, long start);
+    }
+
+    private void update(String optionKey, Keep keep, List<Availability> added) {
+        var sortedAdded = added.toArray(new Availability[0]);
+        Arrays.sort(sortedAdded, ORDER);
+        options.compute(optionKey, (ignored, previous) -> {
+            if (previous == null) {
+                return new OptionSlots(sortedAdded);
+            }
+            var kept = new Availability[previous.slots.length];
+            int keptCount = 0;
+            for (int i = 0; i < previous.slots.length; i++) {
+                if (keep.test(previous.slots[i], previous.starts[i])) {
+                    kept[keptCount++] = previous.slots[i];
+                }
+            }
+            return new OptionSlots(merge(kept, keptCount, sortedAdded));
+        });
+    }
+
+    private static Availability[] merge(Availability[] kept, int keptCount, Availability[] added) {
+        var merged = new Availability[keptCount + added.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < keptCount && j < added.length) {
+            merged[k++] = ORDER.compare(kept[i], added[j]) <= 0 ? kept[i++] : added[j++];
+        }
+        System.arraycopy(kept, i, merged, k, keptCount - i);
+        System.arraycopy(added, j, merged, k + keptCount - i, added.length - j);
+        return merged;
+    }
+
+    /**
+     * Drops all slots of the option
+     */
+    public void remove(String optionKey) {
+        options.remove(optionKey);
+    }
+
+    /**
+     * @return number of indexed options
+     */
+    public int size() {
+        return options.size();
+    }
+
+    /**
+     * @return all slots of the option in start order, empty if the option isn't indexed
+     */
+    public List<Availability> slots(String optionKey) {
+        var option = options.get(optionKey);
+        return option == null ? List.of() : Collections.unmodifiableList(Arrays.asList(option.slots));
+    }
+
+    /**
+     * @return the slots of the option matching the query, in start order
+     */
+    public List<Availability> find(String optionKey, AvailabilityQuery query) {
+        return find(optionKey, query, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the first slots of the option matching the query, at most {@code limit}, in start order
+     */
+    public List<Availability> find(String optionKey, AvailabilityQuery query, int limit) {
+        var option = options.get(optionKey);
+        if (option == null || limit <= 0) {
+            return List.of();
+        }
+        var found = new ArrayList<Availability>();
+        option.collect(query, found, limit);
+        return found;
+    }
+
+    /**
+     * @return the earliest slot of the option matching the query, null if none
+     */
+    public Availability first(String optionKey, AvailabilityQuery query) {
+        var found = find(optionKey, query, 1);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Immutable slots of one option, sorted by {@link #ORDER}, with their segment tree
+     */
+    private static final class OptionSlots {
+        final Availability[] slots;
+        final long[] starts;
+
+        /**
+         * Leaves of the tree, the node of slot i is leaves + i and the children of node n are 2n and 2n + 1
+         */
+        private final int leaves;
+        private final long[] maxEnd;
+        private final long[] maxCutoff;
+        private final int[] maxVacancies;
+        private final int[] statuses;
+
+        OptionSlots(Availability[] slots) {
+            this.slots = slots;
+            this.starts = new long[slots.length];
+            this.leaves = Integer.highestOneBit(Math.max(1, slots.length * 2 - 1));
+            this.maxEnd = new long[2 * leaves];
+            this.maxCutoff = new long[2 * leaves];
+            this.maxVacancies = new int[2 * leaves];
+            this.statuses = new int[2 * leaves];
+
+            Arrays.fill(maxEnd, Long.MIN_VALUE);
+            Arrays.fill(maxCutoff, Long.MIN_VALUE);
+            Arrays.fill(maxVacancies, Integer.MIN_VALUE);
+            for (int i = 0; i < slots.length; i++) {
+                var slot = slots[i];
+                int node = leaves + i;
+                starts[i] = slot.localDateTimeStart().toEpochSecond();
+                maxEnd[node] = slot.localDateTimeEnd().toEpochSecond();
+                maxCutoff[node] = slot.utcCutoffAt() == null ? Long.MAX_VALUE : slot.utcCutoffAt().toEpochSecond();
+                maxVacancies[node] = slot.vacancies() == null ? Integer.MAX_VALUE : slot.vacancies();
+                statuses[node] = AvailabilityQuery.statusBit(slot.status());
+            }
+            for (int node = leaves - 1; node > 0; node--) {
+                maxEnd[node] = Math.max(maxEnd[2 * node], maxEnd[2 * node + 1]);
+                maxCutoff[node] = Math.max(maxCutoff[2 * node], maxCutoff[2 * node + 1]);
+                maxVacancies[node] = Math.max(maxVacancies[2 * node], maxVacancies[2 * node + 1]);
+                statuses[node] = statuses[2 * node] | statuses[2 * node + 1];
+            }
+        }
+
+        /**
+         * @return index of the first slot starting at or after the given second
+         */
+        private int firstStartingFrom(long second) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < second) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void collect(AvailabilityQuery query, List<Availability> found, int limit) {
+            int from = query.overlapping ? 0 : firstStartingFrom(query.from);
+            int to = firstStartingFrom(query.to);
+            if (from < to) {
+                collect(1, 0, leaves, from, to, query, found, limit);
+            }
+        }
+
+        /**
+         * Adds the matching slots of the node covering slots [nodeFrom, nodeTo) that are also in [from, to)
+         */
+        private void collect(int node, int nodeFrom, int nodeTo, int from, int to, AvailabilityQuery query, List<Availability> found, int limit) {
+            if (nodeTo <= from || nodeFrom >= to || found.size() >= limit || !mayMatch(node, query)) {
+                return;
+            }
+            if (node >= leaves) {
+                // The maxima of a leaf are the slot's values, so mayMatch is exact here
+                found.add(slots[node - leaves]);
+                return;
+            }
+            int middle = (nodeFrom + nodeTo) >>> 1;
+            collect(2 * node, nodeFrom, middle, from, to, query, found, limit);
+            collect(2 * node + 1, middle, nodeTo, from, to, query, found, limit);
+        }
+
+        private boolean mayMatch(int node, AvailabilityQuery query) {
+            return (statuses[node] & query.statuses) != 0
+                    && maxCutoff[node] > query.cutoffAfter
+                    && maxVacancies[node] >= query.minVacancies
+                    && (!query.overlapping || maxEnd[node] > query.from);
+        }
+    }
+}
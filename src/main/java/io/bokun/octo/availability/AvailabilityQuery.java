@@ -0,0 +1,92 @@
+package io.bokun.octo.availability;
+
+import io.bokun.octo.AvailabilityStatus;
+
+import java.time.Instant;
+
+/**
+ * Criteria of an {@link AvailabilityIndex} lookup, e.g. the bookable slots of the next two days with room for 3:
+ * <pre>{@code
+ * var query = AvailabilityQuery.startingBetween(now, now.plus(2, ChronoUnit.DAYS))
+ *         .statuses(AvailabilityStatus.AVAILABLE, AvailabilityStatus.LIMITED, AvailabilityStatus.FREESALE)
+ *         .cutoffAfter(now)
+ *         .minVacancies(3);
+ * }</pre>
+ * Queries are immutable, every method returns a new query. Times are compared to the second, like the OCTO
+ * timestamps.
+ */
+public final class AvailabilityQuery {
+    /**
+     * Status mask bit of the slots without a status
+     */
+    static final int NO_STATUS = 1 << AvailabilityStatus.values().length;
+    static final int ANY_STATUS = -1;
+
+    final long from;
+    final long to;
+    final boolean overlapping;
+    final int statuses;
+    final long cutoffAfter;
+    final int minVacancies;
+
+    private AvailabilityQuery(long from, long to, boolean overlapping, int statuses, long cutoffAfter, int minVacancies) {
+        this.from = from;
+        this.to = to;
+        this.overlapping = overlapping;
+        this.statuses = statuses;
+        this.cutoffAfter = cutoffAfter;
+        this.minVacancies = minVacancies;
+    }
+
+    /**
+     * @return a query for the slots starting at or after {@code from} and before {@code to}
+     */
+    public static AvailabilityQuery startingBetween(Instant from, Instant to) {
+        return new AvailabilityQuery(from.getEpochSecond(), to.getEpochSecond(), false, ANY_STATUS, Long.MIN_VALUE, Integer.MIN_VALUE);
+    }
+
+    /**
+     * @return a query for the slots running at some point between {@code from} and {@code to}, i.e. starting before
+     * {@code to} and ending after {@code from}
+     */
+    public static AvailabilityQuery overlapping(Instant from, Instant to) {
+        return new AvailabilityQuery(from.getEpochSecond(), to.getEpochSecond(), true, ANY_STATUS, Long.MIN_VALUE, Integer.MIN_VALUE);
+    }
+
+    /**
+     * @return a query for all slots of the option
+     */
+    public static AvailabilityQuery all() {
+        return new AvailabilityQuery(Long.MIN_VALUE, Long.MAX_VALUE, false, ANY_STATUS, Long.MIN_VALUE, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Restricts the query to slots with one of the given statuses
+     */
+    public AvailabilityQuery statuses(AvailabilityStatus... statuses) {
+        int mask = 0;
+        for (var status : statuses) {
+            mask |= statusBit(status);
+        }
+        return new AvailabilityQuery(from, to, overlapping, mask, cutoffAfter, minVacancies);
+    }
+
+    /**
+     * Restricts the query to slots that can still be booked at the given time, i.e. with {@code utcCutoffAt} after it
+     */
+    public AvailabilityQuery cutoffAfter(Instant time) {
+        return new AvailabilityQuery(from, to, overlapping, statuses, time.getEpochSecond(), minVacancies);
+    }
+
+    /**
+     * Restricts the query to slots with at least the given vacancies. Slots without vacancies (e.g.
+     * {@code FREESALE}) have no limit and always match.
+     */
+    public AvailabilityQuery minVacancies(int vacancies) {
+        return new AvailabilityQuery(from, to, overlapping, statuses, cutoffAfter, vacancies);
+    }
+
+    static int statusBit(AvailabilityStatus status) {
+        return status == null ? NO_STATUS : 1 << status.ordinal();
+    }
+}
@@ -0,0 +1,307 @@
+package io.bokun.octo.availability;
+
+import io.bokun.octo.AvailabilityCalendar;
+import io.bokun.octo.AvailabilityStatus;
+import io.bokun.octo.OpeningHours;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Columnar, primitive-only representation of the {@code /availability/calendar} response for a single option.
+ * <p>
+ * Every day is stored as one slot across parallel arrays: the epoch day, vacancies and capacity (with
+ * {@link #NO_VALUE} for null), the {@link AvailabilityStatus} ordinal, the available flag and a packed range of
+ * opening hours as minute-of-day shorts. Days are sorted by date, so date lookups are binary searches and
+ * none of the accessors box.
+ * <p>
+ * Instances are immutable and safe to share between threads. {@link #of(List)} and {@link #toList()} convert
+ * from and to the generated records; opening hours must use the {@code HH:MM} format of the OCTO spec.
+ */
+public final class CompactAvailabilityCalendar {
+    /**
+     * Returned by {@link #vacancies(int)} and {@link #capacity(int)} if the value is null in the record
+     */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    /**
+     * Returned by {@link #openingMinute(int, int)} and {@link #closingMinute(int, int)} if the opening hours element
+     * itself is null in the record
+     */
+    public static final int NULL_OPENING_HOURS = -2;
+
+    private static final AvailabilityStatus[] STATUSES = AvailabilityStatus.values();
+    private static final byte NULL_BYTE = -1;
+    private static final short NULL_MINUTE = -1;
+
+    private final int[] epochDays;
+    private final int[] vacancies;
+    private final int[] capacities;
+    private final byte[] statuses;
+    private final byte[] available;
+
+    /**
+     * Opening hours of day i are the pairs openingHours[2 * j], openingHours[2 * j + 1] for
+     * openingHoursStart[i] &lt;= j &lt; openingHoursStart[i + 1]
+     */
+    private final int[] openingHoursStart;
+    private final short[] openingHours;
+
+    private CompactAvailabilityCalendar(int[] epochDays,
+                                        int[] vacancies,
+                                        int[] capacities,
+                                        byte[] statuses,
+                                        byte[] available,
+                                        int[] openingHoursStart,
+                                        short[] openingHours) {
+        this.epochDays = epochDays;
+        this.vacancies = vacancies;
+        this.capacities = capacities;
+        this.statuses = statuses;
+        this.available = available;
+        this.openingHoursStart = openingHoursStart;
+        this.openingHours = openingHours;
+    }
+
+    /**
+     * Builds the columnar calendar from the records of a calendar response, which don't have to be sorted.
+     * Null opening hours lists are stored as empty lists, null elements of the lists are kept.
+     *
+     * @throws IllegalArgumentException if a day has no date or an opening hour isn't in HH:MM format
+     */
+    public static CompactAvailabilityCalendar of(List<AvailabilityCalendar> days) {
+        var sorted = new ArrayList<>(days);
+        for (var day : sorted) {
+            if (day == null || day.localDate() == null) {
+                throw new IllegalArgumentException("Calendar day without localDate: " + day);
+            }
+        }
+        sorted.sort(Comparator.comparing(AvailabilityCalendar::localDate));
+
+        int size = sorted.size();
+        var epochDays = new int[size];
+        var vacancies = new int[size];
+        var capacities = new int[size];
+        var statuses = new byte[size];
+        var available = new byte[size];
+        var openingHoursStart = new int[size + 1];
+
+        int openingHoursCount = 0;
+        for (var day : sorted) {
+            openingHoursCount += day.openingHours() == null ? 0 : day.openingHours().size();
+        }
+        var openingHours = new short[openingHoursCount * 2];
+
+        int pair = 0;
+        for (int i = 0; i < size; i++) {
+            var day = sorted.get(i);
+            epochDays[i] = Math.toIntExact(day.localDate().toEpochDay());
+            vacancies[i] = day.vacancies() == null ? NO_VALUE : day.vacancies();
+            capacities[i] = day.capacity() == null ? NO_VALUE : day.capacity();
+            statuses[i] = day.status() == null ? NULL_BYTE : (byte) day.status().ordinal();
+            available[i] = day.available() == null ? NULL_BYTE : (byte) (day.available() ? 1 : 0);
+            openingHoursStart[i] = pair;
+            if (day.openingHours() != null) {
+                for (var hours : day.openingHours()) {
+                    // Not NULL_MINUTE, which would read back as OpeningHours(null, null)
+                    openingHours[2 * pair] = hours == null ? NULL_OPENING_HOURS : parseMinute(hours.from());
+                    openingHours[2 * pair + 1] = hours == null ? NULL_OPENING_HOURS : parseMinute(hours.to());
+                    pair++;
+                }
+            }
+        }
+        openingHoursStart[size] = pair;
+
+        return new CompactAvailabilityCalendar(epochDays, vacancies, capacities, statuses, available, openingHoursStart, openingHours);
+    }
+
+    /**
+     * Parses HH:MM into the minute of the day, 24:00 is accepted as the end of the day
+     */
+    private static short parseMinute(String time) {
+        if (time == null) {
+            return NULL_MINUTE;
+        }
+        if (time.length() != 5 || time.charAt(2) != ':') {
+            throw new IllegalArgumentException("Opening hour not in HH:MM format: " + time);
+        }
+        int hours = digit(time, 0) * 10 + digit(time, 1);
+        int minutes = digit(time, 3) * 10 + digit(time, 4);
+        if (hours > 24 || minutes > 59 || (hours == 24 && minutes != 0)) {
+            throw new IllegalArgumentException("Opening hour not in HH:MM format: " + time);
+        }
+        return (short) (hours * 60 + minutes);
+    }
+
+    private static int digit(String time, int index) {
+        int digit = time.charAt(index) - '0';
+        if (digit < 0 || digit > 9) {
+            throw new IllegalArgumentException("Opening hour not in HH:MM format: " + time);
+        }
+        return digit;
+    }
+
+    private static String formatMinute(short minute) {
+        if (minute == NULL_MINUTE) {
+            return null;
+        }
+        int hours = minute / 60;
+        int minutes = minute % 60;
+        return new String(new char[]{
+                (char) ('0' + hours / 10), (char) ('0' + hours % 10), ':', (char) ('0' + minutes / 10), (char) ('0' + minutes % 10)
+        });
+    }
+
+    /**
+     * @return number of days in the calendar
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * @return index of the given date, or a negative value if the calendar has no such day
+     */
+    public int indexOf(LocalDate date) {
+        return indexOf(Math.toIntExact(date.toEpochDay()));
+    }
+
+    /**
+     * @return index of the given epoch day, or a negative value if the calendar has no such day
+     */
+    public int indexOf(int epochDay) {
+        int index = Arrays.binarySearch(epochDays, epochDay);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * @return index of the first day on or after the given epoch day, {@link #size()} if there's none
+     */
+    public int fromIndex(int epochDay) {
+        int low = 0;
+        int high = epochDays.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return index after the last day on or before the given epoch day, so days in [start, end] are
+     * {@code fromIndex(start)} until {@code toIndex(end)} exclusive
+     */
+    public int toIndex(int epochDay) {
+        return epochDay == Integer.MAX_VALUE ? epochDays.length : fromIndex(epochDay + 1);
+    }
+
+    public int epochDay(int index) {
+        return epochDays[index];
+    }
+
+    public LocalDate localDate(int index) {
+        return LocalDate.ofEpochDay(epochDays[index]);
+    }
+
+    /**
+     * @return vacancies of the day, {@link #NO_VALUE} if not set
+     */
+    public int vacancies(int index) {
+        return vacancies[index];
+    }
+
+    /**
+     * @return capacity of the day, {@link #NO_VALUE} if not set
+     */
+    public int capacity(int index) {
+        return capacities[index];
+    }
+
+    /**
+     * @return status of the day, null if not set
+     */
+    public AvailabilityStatus status(int index) {
+        return statuses[index] == NULL_BYTE ? null : STATUSES[statuses[index]];
+    }
+
+    /**
+     * @return true if the day is available, false if it's not available or not set
+     */
+    public boolean available(int index) {
+        return available[index] == 1;
+    }
+
+    public int openingHoursCount(int index) {
+        return openingHoursStart[index + 1] - openingHoursStart[index];
+    }
+
+    /**
+     * @return the opening time of the day's n-th opening hours as minute of the day, -1 if not set,
+     * {@link #NULL_OPENING_HOURS} if the opening hours are null
+     */
+    public int openingMinute(int index, int n) {
+        return openingHours[2 * (openingHoursStart[index] + n)];
+    }
+
+    /**
+     * @return the closing time of the day's n-th opening hours as minute of the day, -1 if not set,
+     * {@link #NULL_OPENING_HOURS} if the opening hours are null
+     */
+    public int closingMinute(int index, int n) {
+        return openingHours[2 * (openingHoursStart[index] + n) + 1];
+    }
+
+    /**
+     * @return the day at the given index as a record
+     */
+    public AvailabilityCalendar get(int index) {
+        int count = openingHoursCount(index);
+        var hours = new ArrayList<OpeningHours>(count);
+        for (int n = 0; n < count; n++) {
+            int pair = openingHoursStart[index] + n;
+            hours.add(openingHours[2 * pair] == NULL_OPENING_HOURS
+                    ? null
+                    : new OpeningHours(formatMinute(openingHours[2 * pair]), formatMinute(openingHours[2 * pair + 1])));
+        }
+        return new AvailabilityCalendar(
+                localDate(index),
+                available[index] == NULL_BYTE ? null : available[index] == 1,
+                status(index),
+                vacancies[index] == NO_VALUE ? null : vacancies[index],
+                capacities[index] == NO_VALUE ? null : capacities[index],
+                hours
+        );
+    }
+
+    /**
+     * @return all days as records, sorted by date
+     */
+    public ArrayList<AvailabilityCalendar> toList() {
+        return toList(0, size());
+    }
+
+    /**
+     * @return the days between the indexes (end exclusive) as records
+     */
+    public ArrayList<AvailabilityCalendar> toList(int fromIndex, int toIndex) {
+        var list = new ArrayList<AvailabilityCalendar>(Math.max(0, toIndex - fromIndex));
+        for (int i = fromIndex; i < toIndex; i++) {
+            list.add(get(i));
+        }
+        return list;
+    }
+
+    /**
+     * @return the days between the dates (both inclusive) as records
+     */
+    public ArrayList<AvailabilityCalendar> between(LocalDate start, LocalDate end) {
+        return toList(fromIndex(Math.toIntExact(start.toEpochDay())), toIndex(Math.toIntExact(end.toEpochDay())));
+    }
+}
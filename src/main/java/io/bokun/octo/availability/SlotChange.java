@@ -0,0 +1,20 @@
+package io.bokun.octo.availability;
+
+/**
+ * Change of one slot between two polls: added (no previous), removed (no current) or changed. Status and vacancy
+ * changes are flagged, other changes (capacity, cutoff, opening hours, ...) only show in the records.
+ *
+ * @param key              the slot's key, the id of an {@link io.bokun.octo.Availability} or the date of an
+ *                         {@link io.bokun.octo.AvailabilityCalendar} day
+ * @param statusChanged    true if the slot was in both polls with a different status
+ * @param vacanciesChanged true if the slot was in both polls with different vacancies
+ */
+public record SlotChange<T>(String key, T previous, T current, boolean statusChanged, boolean vacanciesChanged) {
+    public boolean isAdded() {
+        return previous == null;
+    }
+
+    public boolean isRemoved() {
+        return current == null;
+    }
+}
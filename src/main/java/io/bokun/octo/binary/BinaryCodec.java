@@ -0,0 +1,142 @@
+package io.bokun.octo.binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of an OCTO DTO, for caches and transport between our own services. Get the codec of
+ * a record or enum from {@link OctoBinaryCodecs#forType(Class)}.
+ * <p>
+ * Payloads start with a header holding {@link OctoBinaryCodecs#SCHEMA_VERSION}, a hash of the spec the DTOs were
+ * generated from, and decoding a payload written with another version fails instead of misreading it. Records are
+ * written as a presence bitmap of their non-null fields followed by the field values in declaration order, so every
+ * record round-trips to an equal record, including nulls in {@code @Nonnull} fields.
+ * <p>
+ * Codecs are stateless and thread-safe.
+ */
+public abstract class BinaryCodec<T> {
+    private static final int MAGIC = 0xB1;
+
+    BinaryCodec() {
+    }
+
+    /**
+     * Writes a non-null value
+     */
+    abstract void write(BinaryOutput out, T value);
+
+    abstract T read(BinaryInput in);
+
+    /**
+     * Writes a value that may be null, e.g. a list element. Codecs override this where null fits in the value
+     * encoding, such as enums writing ordinal + 1.
+     */
+    void writeNullable(BinaryOutput out, T value) {
+        if (value == null) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(1);
+            write(out, value);
+        }
+    }
+
+    T readNullable(BinaryInput in) {
+        return switch (in.readByte()) {
+            case 0 -> null;
+            case 1 -> read(in);
+            default -> throw new IllegalArgumentException("Malformed null marker in binary payload");
+        };
+    }
+
+    /**
+     * @return the value encoded with the header, null is allowed
+     */
+    public byte[] encode(T value) {
+        return encodeToOutput(value).toByteArray();
+    }
+
+    public void encode(T value, OutputStream stream) throws IOException {
+        var out = encodeToOutput(value, new BinaryOutput(256));
+        stream.write(out.buffer(), 0, out.size());
+    }
+
+    /**
+     * Encodes the value with its lists of childCodec elements written empty, e.g. a product without its options, so
+     * the children can be stored apart and put back by {@link #decodeWithChildren(byte[], int, int, BinaryCodec, List)}
+     */
+    public byte[] encodeWithoutChildren(T value, BinaryCodec<?> childCodec) {
+        var out = new BinaryOutput(256);
+        out.skipListsOf(childCodec);
+        return encodeToOutput(value, out).toByteArray();
+    }
+
+    private BinaryOutput encodeToOutput(T value) {
+        return encodeToOutput(value, new BinaryOutput(256));
+    }
+
+    private BinaryOutput encodeToOutput(T value, BinaryOutput out) {
+        out.writeByte(MAGIC);
+        out.writeInt32(OctoBinaryCodecs.SCHEMA_VERSION);
+        writeNullable(out, value);
+        return out;
+    }
+
+    public T decode(byte[] bytes) {
+        return decode(bytes, 0, bytes.length);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the payload is malformed or was written with another schema version
+     */
+    public T decode(byte[] bytes, int offset, int length) {
+        return decode(new BinaryInput(bytes, offset, length));
+    }
+
+    /**
+     * Decodes a payload written by {@link #encodeWithoutChildren(Object, BinaryCodec)}, its lists of childCodec
+     * elements being read as the given children
+     *
+     * @throws IllegalArgumentException if the payload is malformed, was written with another schema version or has
+     *                                  a non-empty list of childCodec elements
+     */
+    public <E> T decodeWithChildren(byte[] bytes, int offset, int length, BinaryCodec<E> childCodec, List<E> children) {
+        var in = new BinaryInput(bytes, offset, length);
+        in.splice(childCodec, children);
+        return decode(in);
+    }
+
+    private T decode(BinaryInput in) {
+        if (in.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not an OCTO binary payload");
+        }
+        int version = in.readInt32();
+        if (version != OctoBinaryCodecs.SCHEMA_VERSION) {
+            throw new IllegalArgumentException(String.format(
+                    "Binary payload written with schema version %08x, expected %08x", version, OctoBinaryCodecs.SCHEMA_VERSION));
+        }
+        var value = readNullable(in);
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes after binary payload");
+        }
+        return value;
+    }
+
+    /**
+     * @return a codec for lists of the given element codec, e.g. for an {@code /availability} response
+     */
+    public static <T> BinaryCodec<ArrayList<T>> listOf(BinaryCodec<T> elementCodec) {
+        return new BinaryCodec<>() {
+            @Override
+            void write(BinaryOutput out, ArrayList<T> value) {
+                out.writeList(value, elementCodec);
+            }
+
+            @Override
+            ArrayList<T> read(BinaryInput in) {
+                return in.readList(elementCodec);
+            }
+        };
+    }
+}
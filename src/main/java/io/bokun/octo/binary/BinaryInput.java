@@ -0,0 +1,225 @@
+package io.bokun.octo.binary;
+
+import io.bokun.octo.CompactList;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads what {@link BinaryOutput} wrote, malformed or truncated payloads throw IllegalArgumentException
+ */
+final class BinaryInput {
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+    private BinaryCodec<?> splicedElements;
+    private List<?> splicedList;
+
+    BinaryInput(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * Makes the lists of the given element codec read as the given elements, see {@link BinaryCodec#decodeWithChildren}
+     */
+    <T> void splice(BinaryCodec<T> elementCodec, List<T> elements) {
+        this.splicedElements = elementCodec;
+        this.splicedList = elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> splicedList(int size) {
+        if (size != 0) {
+            throw new IllegalArgumentException("Spliced list isn't empty in binary payload");
+        }
+        return (List<T>) splicedList;
+    }
+
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    private void require(int count) {
+        if (count < 0 || limit - position < count) {
+            throw new IllegalArgumentException("Truncated binary payload");
+        }
+    }
+
+    int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    int readInt32() {
+        require(4);
+        int value = (buffer[position] & 0xFF) << 24
+                | (buffer[position + 1] & 0xFF) << 16
+                | (buffer[position + 2] & 0xFF) << 8
+                | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    long readInt64() {
+        return (long) readInt32() << 32 | (readInt32() & 0xFFFFFFFFL);
+    }
+
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in binary payload");
+    }
+
+    int readVarInt() {
+        long value = readVarLong();
+        if (value >>> 32 != 0) {
+            throw new IllegalArgumentException("Malformed varint in binary payload");
+        }
+        return (int) value;
+    }
+
+    long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    Boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    Integer readInteger() {
+        long value = readSignedVarLong();
+        if (value != (int) value) {
+            throw new IllegalArgumentException("Integer out of range in binary payload: " + value);
+        }
+        return (int) value;
+    }
+
+    String readString() {
+        return readStringBytes(readVarInt());
+    }
+
+    /**
+     * Reads a string written with a bias of 1, null if the length is 0
+     */
+    String readNullableString() {
+        int length = readVarInt();
+        return length == 0 ? null : readStringBytes(length - 1);
+    }
+
+    private String readStringBytes(int length) {
+        require(length);
+        var value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    UUID readUuid() {
+        return new UUID(readInt64(), readInt64());
+    }
+
+    URL readUrl() {
+        var value = readString();
+        try {
+            return new URL(value);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Malformed URL in binary payload: " + value, e);
+        }
+    }
+
+    URI readUri() {
+        var value = readString();
+        try {
+            return new URI(value);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Malformed URI in binary payload: " + value, e);
+        }
+    }
+
+    LocalDate readLocalDate() {
+        try {
+            return LocalDate.ofEpochDay(readSignedVarLong());
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Malformed date in binary payload", e);
+        }
+    }
+
+    ZonedDateTime readZonedDateTime() {
+        long epochSecond = readSignedVarLong();
+        int nanos = readVarInt();
+        long zone = readVarLong();
+        try {
+            var instant = Instant.ofEpochSecond(epochSecond, nanos);
+            if ((zone & 1) == 0) {
+                long seconds = zone >>> 1;
+                return ZonedDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds((int) ((seconds >>> 1) ^ -(seconds & 1))));
+            }
+            return ZonedDateTime.ofInstant(instant, ZoneId.of(readString()));
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Malformed date-time in binary payload", e);
+        }
+    }
+
+    /**
+     * @return the enum constant with the given ordinal
+     */
+    <E> E readConstant(E[] values, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Unknown enum ordinal in binary payload: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    <T> ArrayList<T> readList(BinaryCodec<T> elementCodec) {
+        int size = readVarInt();
+        if (elementCodec == splicedElements) {
+            return new ArrayList<>(this.<T>splicedList(size));
+        }
+        // Every element takes at least a byte, so a corrupt size can't allocate more than the payload
+        require(size);
+        var list = new ArrayList<T>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(elementCodec.readNullable(this));
+        }
+        return list;
+    }
+
+    /**
+     * Reads a list into a {@link CompactList}, for the DTOs generated with listType=List
+     */
+    <T> List<T> readCompactList(BinaryCodec<T> elementCodec) {
+        int size = readVarInt();
+        if (elementCodec == splicedElements) {
+            return CompactList.copyOf(this.<T>splicedList(size));
+        }
+        require(size);
+        if (size == 0) {
+            return CompactList.empty();
+        }
+        var list = new CompactList.Builder<T>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(elementCodec.readNullable(this));
+        }
+        return list.build();
+    }
+}
@@ -0,0 +1,163 @@
+package io.bokun.octo.binary;
+
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Growable byte buffer the generated codecs write to. Numbers are varints (zigzag for signed values), so small
+ * values such as vacancies and enum ordinals take a single byte.
+ */
+final class BinaryOutput {
+    private byte[] buffer;
+    private int position;
+    private BinaryCodec<?> skippedElements;
+
+    BinaryOutput(int initialCapacity) {
+        buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /**
+     * Makes the lists of the given element codec written empty, see {@link BinaryCodec#encodeWithoutChildren}
+     */
+    void skipListsOf(BinaryCodec<?> elementCodec) {
+        this.skippedElements = elementCodec;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    int size() {
+        return position;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (position + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+        }
+    }
+
+    void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeInt32(int value) {
+        ensureCapacity(4);
+        buffer[position++] = (byte) (value >>> 24);
+        buffer[position++] = (byte) (value >>> 16);
+        buffer[position++] = (byte) (value >>> 8);
+        buffer[position++] = (byte) value;
+    }
+
+    void writeInt64(long value) {
+        writeInt32((int) (value >>> 32));
+        writeInt32((int) value);
+    }
+
+    void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeBoolean(Boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    void writeInteger(Integer value) {
+        writeSignedVarLong(value);
+    }
+
+    void writeString(String value) {
+        writeNullableString(value, 0);
+    }
+
+    /**
+     * Writes the UTF-8 length plus the given bias, then the bytes. Element strings in lists use a bias of 1 so
+     * 0 can stand for null.
+     */
+    void writeNullableString(String value, int bias) {
+        int length = value.length();
+        int start = position;
+        writeVarInt(length + bias);
+        ensureCapacity(length);
+        // ASCII is encoded in place, anything else falls back to the JDK encoder
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                position = start;
+                var bytes = value.getBytes(StandardCharsets.UTF_8);
+                writeVarInt(bytes.length + bias);
+                ensureCapacity(bytes.length);
+                System.arraycopy(bytes, 0, buffer, position, bytes.length);
+                position += bytes.length;
+                return;
+            }
+            buffer[position++] = (byte) c;
+        }
+    }
+
+    void writeUuid(UUID value) {
+        writeInt64(value.getMostSignificantBits());
+        writeInt64(value.getLeastSignificantBits());
+    }
+
+    void writeUrl(URL value) {
+        writeString(value.toExternalForm());
+    }
+
+    void writeUri(URI value) {
+        writeString(value.toString());
+    }
+
+    void writeLocalDate(LocalDate value) {
+        writeSignedVarLong(value.toEpochDay());
+    }
+
+    /**
+     * Writes the instant and the zone: an offset as an even number, a zone region as 1 followed by its id. The
+     * instant and the zone determine the offset, so the value reads back equal.
+     */
+    void writeZonedDateTime(ZonedDateTime value) {
+        writeSignedVarLong(value.toEpochSecond());
+        writeVarInt(value.getNano());
+        if (value.getZone() instanceof ZoneOffset offset) {
+            long seconds = offset.getTotalSeconds();
+            writeVarLong(((seconds << 1) ^ (seconds >> 63)) << 1);
+        } else {
+            writeVarLong(1);
+            writeString(value.getZone().getId());
+        }
+    }
+
+    <T> void writeList(List<T> list, BinaryCodec<T> elementCodec) {
+        int size = elementCodec == skippedElements ? 0 : list.size();
+        writeVarInt(size);
+        for (int i = 0; i < size; i++) {
+            elementCodec.writeNullable(this, list.get(i));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.bokun.octo.binary;
+
+import java.net.URI;
+import java.net.URL;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Codecs for the scalar element types of lists, e.g. {@code ArrayList<String>}. Record fields of these types are
+ * written inline by the generated codecs instead.
+ */
+final class ScalarCodecs {
+    private ScalarCodecs() {
+    }
+
+    static final BinaryCodec<String> STRING = new BinaryCodec<>() {
+        @Override
+        void write(BinaryOutput out, String value) {
+            out.writeString(value);
+        }
+
+        @Override
+        String read(BinaryInput in) {
+            return in.readString();
+        }
+
+        @Override
+        void writeNullable(BinaryOutput out, String value) {
+            if (value == null) {
+                out.writeVarInt(0);
+            } else {
+                out.writeNullableString(value, 1);
+            }
+        }
+
+        @Override
+        String readNullable(BinaryInput in) {
+            return in.readNullableString();
+        }
+    };
+
+    static final BinaryCodec<Boolean> BOOLEAN = new BinaryCodec<>() {
+        @Override
+        void write(BinaryOutput out, Boolean value) {
+            out.writeBoolean(value);
+        }
+
+        @Override
+        Boolean read(BinaryInput in) {
+            return in.readBoolean();
+        }
+    };
+
+    static final BinaryCodec<Integer> INTEGER = new BinaryCodec<>() {
+        @Override
+        void write(BinaryOutput out, Integer value) {
+            out.writeInteger(value);
+        }
+
+        @Override
+        Integer read(BinaryInput in) {
+            return in.readInteger();
+        }
+    };
+
+    static final BinaryCodec<UUID> UUID = new BinaryCodec<>() {
+        @Override
+        void write(BinaryOutput out, java.util.UUID value) {
+            out.writeUuid(value);
+        }
+
+        @Override
+        java.util.UUID read(BinaryInput in) {
+            return in.readUuid();
+        }
+    };
+
+    static final BinaryCodec<URL> URL = new BinaryCodec<>() {
+        @Override
+        void write(BinaryOutput out, java.net.URL value) {
+            out.writeUrl(value);
+        }
+
+        @Override
+        java.net.URL read(BinaryInput in) {
+            return in.readUrl();
+        }
+    };
+
+    static final BinaryCodec<URI> URI = new BinaryCodec<>() {
+        @Override
+        void write(BinaryOutput out, java.net.URI value) {
+            out.writeUri(value);
+        }
+
+        @Override
+        java.net.URI read(BinaryInput in) {
+            return in.readUri();
+        }
+    };
+
+    static final BinaryCodec<LocalDate> LOCAL_DATE = new BinaryCodec<>() {
+        @Override
+        void write(BinaryOutput out, LocalDate value) {
+            out.writeLocalDate(value);
+        }
+
+        @Override
+        LocalDate read(BinaryInput in) {
+            return in.readLocalDate();
+        }
+    };
+
+    static final BinaryCodec<ZonedDateTime> ZONED_DATE_TIME = new BinaryCodec<>() {
+        @Override
+        void write(BinaryOutput out, ZonedDateTime value) {
+            out.writeZonedDateTime(value);
+        }
+
+        @Override
+        ZonedDateTime read(BinaryInput in) {
+            return in.readZonedDateTime();
+        }
+    };
+}
@@ -0,0 +1,320 @@
+package io.bokun.octo.catalog;
+
+import io.bokun.octo.Option;
+import io.bokun.octo.Product;
+import io.bokun.octo.Unit;
+import io.bokun.octo.binary.BinaryCodec;
+import io.bokun.octo.binary.OctoBinaryCodecs;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * One immutable, memory-mapped catalog file. Layout, big-endian:
+ * <pre>
+ * header:  magic, version, binary schema version, entry count of the 3 indexes, offset of the 3 indexes (ints)
+ * indexes: products, options & units, entries sorted by key bytes; each entry is
+ *          key offset, key length, payload offset, payload length, position in the parent (ints)
+ * keys:    UTF-8 product id, product id \0 option id, product id \0 option id \0 unit id
+ * payload: {@link OctoBinaryCodecs} encoding of the entity without its children, i.e. products without options &
+ *          options without units
+ * </pre>
+ * Only absolute reads are made on the buffer, so it's shared by all reader threads without locking.
+ */
+final class CatalogFile {
+    static final int MAGIC = 0x4F43544F;
+    static final int VERSION = 2;
+
+    static final int PRODUCTS = 0;
+    static final int OPTIONS = 1;
+    static final int UNITS = 2;
+
+    private static final int HEADER_SIZE = 12 + 3 * 4 + 3 * 4;
+    private static final int ENTRY_SIZE = 5 * 4;
+
+    private static final BinaryCodec<Product> PRODUCT_CODEC = OctoBinaryCodecs.forType(Product.class);
+    private static final BinaryCodec<Option> OPTION_CODEC = OctoBinaryCodecs.forType(Option.class);
+    private static final BinaryCodec<Unit> UNIT_CODEC = OctoBinaryCodecs.forType(Unit.class);
+
+    static final CatalogFile EMPTY = new CatalogFile(ByteBuffer.allocate(HEADER_SIZE)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putInt(OctoBinaryCodecs.SCHEMA_VERSION)
+            .clear());
+
+    private final ByteBuffer buffer;
+    private final int[] counts = new int[3];
+    private final int[] offsets = new int[3];
+
+    private CatalogFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a catalog file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Unsupported catalog file version " + buffer.getInt(4));
+        }
+        if (buffer.getInt(8) != OctoBinaryCodecs.SCHEMA_VERSION) {
+            throw new IllegalStateException(String.format(
+                    "Catalog file written with schema version %08x, expected %08x", buffer.getInt(8), OctoBinaryCodecs.SCHEMA_VERSION));
+        }
+        for (int index = PRODUCTS; index <= UNITS; index++) {
+            counts[index] = buffer.getInt(12 + 4 * index);
+            offsets[index] = buffer.getInt(24 + 4 * index);
+        }
+    }
+
+    /**
+     * Maps the file read-only, nothing is read besides the header
+     */
+    static CatalogFile map(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new CatalogFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private record Entry(byte[] key, byte[] payload, int position) {
+    }
+
+    /**
+     * Writes the products to a new catalog file
+     *
+     * @throws IllegalArgumentException if an id is missing, contains \0 or is duplicated
+     */
+    static void write(Path file, Collection<Product> products) throws IOException {
+        var indexes = List.of(new ArrayList<Entry>(), new ArrayList<Entry>(), new ArrayList<Entry>());
+        int productPosition = 0;
+        for (var product : products) {
+            var productKey = id(product == null ? null : product.id(), "product");
+            indexes.get(PRODUCTS).add(new Entry(utf8(productKey), PRODUCT_CODEC.encodeWithoutChildren(product, OPTION_CODEC), productPosition++));
+            if (product.options() == null) {
+                continue;
+            }
+
+            int optionPosition = 0;
+            for (var option : product.options()) {
+                var optionKey = productKey + '\0' + id(option == null ? null : option.id(), "option");
+                indexes.get(OPTIONS).add(new Entry(utf8(optionKey), OPTION_CODEC.encodeWithoutChildren(option, UNIT_CODEC), optionPosition++));
+                if (option.units() == null) {
+                    continue;
+                }
+
+                int unitPosition = 0;
+                for (var unit : option.units()) {
+                    var unitKey = optionKey + '\0' + id(unit == null ? null : unit.id(), "unit");
+                    indexes.get(UNITS).add(new Entry(utf8(unitKey), UNIT_CODEC.encode(unit), unitPosition++));
+                }
+            }
+        }
+
+        long entriesSize = 0;
+        long keysSize = 0;
+        long payloadsSize = 0;
+        for (var index : indexes) {
+            index.sort((a, b) -> Arrays.compareUnsigned(a.key, b.key));
+            for (int i = 0; i < index.size(); i++) {
+                if (i > 0 && Arrays.equals(index.get(i - 1).key, index.get(i).key)) {
+                    throw new IllegalArgumentException("Duplicate catalog id: " + new String(index.get(i).key, StandardCharsets.UTF_8).replace('\0', '/'));
+                }
+                keysSize += index.get(i).key.length;
+                payloadsSize += index.get(i).payload.length;
+            }
+            entriesSize += (long) index.size() * ENTRY_SIZE;
+        }
+        if (HEADER_SIZE + entriesSize + keysSize + payloadsSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Catalog doesn't fit in a 2GB file");
+        }
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(OctoBinaryCodecs.SCHEMA_VERSION);
+            for (var index : indexes) {
+                out.writeInt(index.size());
+            }
+            int indexOffset = HEADER_SIZE;
+            for (var index : indexes) {
+                out.writeInt(indexOffset);
+                indexOffset += index.size() * ENTRY_SIZE;
+            }
+
+            long keyOffset = HEADER_SIZE + entriesSize;
+            long payloadOffset = keyOffset + keysSize;
+            for (var index : indexes) {
+                for (var entry : index) {
+                    out.writeInt((int) keyOffset);
+                    out.writeInt(entry.key.length);
+                    out.writeInt((int) payloadOffset);
+                    out.writeInt(entry.payload.length);
+                    out.writeInt(entry.position);
+                    keyOffset += entry.key.length;
+                    payloadOffset += entry.payload.length;
+                }
+            }
+            for (var index : indexes) {
+                for (var entry : index) {
+                    out.write(entry.key);
+                }
+            }
+            for (var index : indexes) {
+                for (var entry : index) {
+                    out.write(entry.payload);
+                }
+            }
+        }
+    }
+
+    private static String id(String id, String kind) {
+        if (id == null) {
+            throw new IllegalArgumentException("Catalog " + kind + " without id");
+        }
+        if (id.indexOf('\0') >= 0) {
+            throw new IllegalArgumentException("Catalog " + kind + " id contains \\0: " + id);
+        }
+        return id;
+    }
+
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Key of a child of the given key, e.g. the options of a product, without the child id
+     */
+    static byte[] childPrefix(byte[] key) {
+        var prefix = Arrays.copyOf(key, key.length + 1);
+        prefix[key.length] = 0;
+        return prefix;
+    }
+
+    int count(int index) {
+        return counts[index];
+    }
+
+    private int entry(int index, int i) {
+        return offsets[index] + i * ENTRY_SIZE;
+    }
+
+    /**
+     * @return position of the key in the index, -1 if there's no such key
+     */
+    int find(int index, byte[] key) {
+        int i = lowerBound(index, key, false);
+        return i < counts[index] && compare(index, i, key, false) == 0 ? i : -1;
+    }
+
+    /**
+     * @return position of the first key in the index greater than or equal to the given key, or with the given key
+     * as prefix if prefix is set; {@link #count(int)} if there's none
+     */
+    int lowerBound(int index, byte[] key, boolean prefix) {
+        int low = 0;
+        int high = counts[index];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(index, mid, key, prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return position after the last key in the index having the given prefix
+     */
+    int prefixEnd(int index, byte[] prefix) {
+        int low = lowerBound(index, prefix, true);
+        int high = counts[index];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(index, mid, prefix, true) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the key of the i-th entry to the given key without decoding it, a key having the given key as prefix
+     * compares as equal if prefix is set
+     */
+    private int compare(int index, int i, byte[] key, boolean prefix) {
+        int entry = entry(index, i);
+        int keyOffset = buffer.getInt(entry);
+        int keyLength = buffer.getInt(entry + 4);
+        int length = Math.min(keyLength, key.length);
+        for (int n = 0; n < length; n++) {
+            int diff = Byte.toUnsignedInt(buffer.get(keyOffset + n)) - Byte.toUnsignedInt(key[n]);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return prefix && keyLength >= key.length ? 0 : keyLength - key.length;
+    }
+
+    byte[] key(int index, int i) {
+        int entry = entry(index, i);
+        var key = new byte[buffer.getInt(entry + 4)];
+        buffer.get(buffer.getInt(entry), key);
+        return key;
+    }
+
+    private int position(int index, int i) {
+        return buffer.getInt(entry(index, i) + 16);
+    }
+
+    /**
+     * Copies the payload out of the mapping, it's then decoded in a single pass
+     */
+    private byte[] payload(int index, int i) {
+        int entry = entry(index, i);
+        var payload = new byte[buffer.getInt(entry + 12)];
+        buffer.get(buffer.getInt(entry + 8), payload);
+        return payload;
+    }
+
+    Product product(int i) {
+        var payload = payload(PRODUCTS, i);
+        return PRODUCT_CODEC.decodeWithChildren(payload, 0, payload.length, OPTION_CODEC, children(OPTIONS, key(PRODUCTS, i), this::option));
+    }
+
+    Option option(int i) {
+        var payload = payload(OPTIONS, i);
+        return OPTION_CODEC.decodeWithChildren(payload, 0, payload.length, UNIT_CODEC, children(UNITS, key(OPTIONS, i), this::unit));
+    }
+
+    Unit unit(int i) {
+        return UNIT_CODEC.decode(payload(UNITS, i));
+    }
+
+    /**
+     * The children of the entity with the given key, in their original order
+     */
+    private <T> List<T> children(int index, byte[] parentKey, IntFunction<T> decoder) {
+        var prefix = childPrefix(parentKey);
+        int start = lowerBound(index, prefix, true);
+        int end = prefixEnd(index, prefix);
+        var children = new ArrayList<T>(Collections.nCopies(end - start, null));
+        for (int i = start; i < end; i++) {
+            children.set(position(index, i), decoder.apply(i));
+        }
+        return children;
+    }
+}
@@ -0,0 +1,109 @@
+package io.bokun.octo.catalog;
+
+import io.bokun.octo.Option;
+import io.bokun.octo.Product;
+import io.bokun.octo.Unit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistent store of a supplier's {@code /products} catalog, in a memory-mapped file indexed by product id,
+ * option id and unit id.
+ * <p>
+ * Opening a store only maps the file, so startup doesn't depend on the catalog size, and the catalog lives in the
+ * page cache instead of on the heap. Lookups binary search the index in place and decode only the entity looked up,
+ * e.g. {@link #unit(String, String, String)} doesn't touch the product or the other units. Entities are stored in
+ * the compact encoding of {@link io.bokun.octo.binary.OctoBinaryCodecs} and decoded in a single pass.
+ * <p>
+ * {@link #replace(Collection)} writes a new file next to the current one and atomically moves it in place; readers
+ * keep using the previous mapping until it's published, so any number of reader threads work without locking while
+ * the catalog is replaced. Null options and units lists are stored as empty lists.
+ */
+public final class CatalogStore {
+    private final Path file;
+    private volatile CatalogFile catalog;
+
+    private CatalogStore(Path file, CatalogFile catalog) {
+        this.file = file;
+        this.catalog = catalog;
+    }
+
+    /**
+     * Opens the store in the given file, which doesn't have to exist yet
+     *
+     * @throws IllegalStateException if the file isn't a catalog written by this version, or with DTOs generated from
+     *                               another spec
+     */
+    public static CatalogStore open(Path file) throws IOException {
+        return new CatalogStore(file, Files.exists(file) ? CatalogFile.map(file) : CatalogFile.EMPTY);
+    }
+
+    /**
+     * Replaces the whole catalog with the given products, readers see either the old or the new catalog
+     *
+     * @throws IllegalArgumentException if an id is missing or a product, option or unit id is duplicated
+     */
+    public synchronized void replace(Collection<Product> products) throws IOException {
+        var next = file.resolveSibling(file.getFileName() + ".next");
+        try {
+            CatalogFile.write(next, products);
+            Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(next);
+        }
+        catalog = CatalogFile.map(file);
+    }
+
+    /**
+     * @return the product with its options and units, null if there's no such product
+     */
+    public Product product(String productId) {
+        var catalog = this.catalog;
+        int i = catalog.find(CatalogFile.PRODUCTS, CatalogFile.utf8(productId));
+        return i < 0 ? null : catalog.product(i);
+    }
+
+    /**
+     * @return the option with its units, null if there's no such option
+     */
+    public Option option(String productId, String optionId) {
+        var catalog = this.catalog;
+        int i = catalog.find(CatalogFile.OPTIONS, CatalogFile.utf8(productId + '\0' + optionId));
+        return i < 0 ? null : catalog.option(i);
+    }
+
+    /**
+     * @return the unit, null if there's no such unit
+     */
+    public Unit unit(String productId, String optionId, String unitId) {
+        var catalog = this.catalog;
+        int i = catalog.find(CatalogFile.UNITS, CatalogFile.utf8(productId + '\0' + optionId + '\0' + unitId));
+        return i < 0 ? null : catalog.unit(i);
+    }
+
+    /**
+     * @return ids of all products, in the order of their UTF-8 bytes
+     */
+    public List<String> productIds() {
+        var catalog = this.catalog;
+        var ids = new ArrayList<String>(catalog.count(CatalogFile.PRODUCTS));
+        for (int i = 0; i < catalog.count(CatalogFile.PRODUCTS); i++) {
+            ids.add(new String(catalog.key(CatalogFile.PRODUCTS, i), StandardCharsets.UTF_8));
+        }
+        return ids;
+    }
+
+    /**
+     * @return number of products in the catalog
+     */
+    public int size() {
+        return catalog.count(CatalogFile.PRODUCTS);
+    }
+}
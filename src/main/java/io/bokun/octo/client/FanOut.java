@@ -0,0 +1,98 @@
+package io.bokun.octo.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs one async call per input with at most maxConcurrency calls in flight, e.g. availability checks across
+ * many products and options.
+ * <p>
+ * No thread is blocked while waiting: the next call is started from the completion of a previous one. That
+ * makes it safe to use from virtual threads as well as from a small platform thread pool.
+ */
+public final class FanOut<I, O> {
+    private final List<I> inputs;
+    private final Function<? super I, CompletableFuture<O>> call;
+    private final List<CompletableFuture<O>> results;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private FanOut(List<I> inputs, Function<? super I, CompletableFuture<O>> call) {
+        this.inputs = List.copyOf(inputs);
+        this.call = call;
+        this.results = new ArrayList<>(this.inputs.size());
+        for (int i = 0; i < this.inputs.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+    }
+
+    /**
+     * Starts the calls, returns one future per input, in the order of the inputs. A failed call only fails its own
+     * future, use {@link #all(List)} to wait for all of them.
+     */
+    public static <I, O> List<CompletableFuture<O>> map(List<I> inputs,
+                                                        int maxConcurrency,
+                                                        Function<? super I, CompletableFuture<O>> call) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1, got " + maxConcurrency);
+        }
+        var fanOut = new FanOut<I, O>(inputs, call);
+        for (int i = 0; i < Math.min(maxConcurrency, fanOut.inputs.size()); i++) {
+            fanOut.startNext();
+        }
+        return fanOut.results;
+    }
+
+    /**
+     * @return a future completing with all results once all futures completed, or exceptionally with the first failure
+     */
+    public static <O> CompletableFuture<List<O>> all(List<CompletableFuture<O>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply((ignored) -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Starts calls until one doesn't complete immediately, looping instead of recursing so cached or failed
+     * calls don't grow the stack
+     */
+    private void startNext() {
+        while (true) {
+            int index = next.getAndIncrement();
+            if (index >= inputs.size()) {
+                return;
+            }
+
+            CompletableFuture<O> future;
+            try {
+                future = call.apply(inputs.get(index));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+
+            var result = results.get(index);
+            if (future.isDone()) {
+                forward(future, result);
+                continue;
+            }
+            future.whenComplete((value, error) -> {
+                forward(value, error, result);
+                startNext();
+            });
+            return;
+        }
+    }
+
+    private static <O> void forward(CompletableFuture<O> from, CompletableFuture<O> to) {
+        from.whenComplete((value, error) -> forward(value, error, to));
+    }
+
+    private static <O> void forward(O value, Throwable error, CompletableFuture<O> to) {
+        if (error != null) {
+            to.completeExceptionally(error);
+        } else {
+            to.complete(value);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.bokun.octo.client;
+
+/**
+ * Thrown (wrapped in a {@link java.util.concurrent.CompletionException}) when an OCTO endpoint responds with an
+ * error status. The body usually holds an OCTO error, e.g. {@code {"error": "INVALID_PRODUCT_ID", ...}}.
+ */
+public class OctoClientException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final String method;
+    private final String path;
+    private final int statusCode;
+    private final String responseBody;
+
+    public OctoClientException(String method, String path, int statusCode, String responseBody) {
+        super(method + " " + path + " failed with HTTP " + statusCode + ": " + responseBody);
+        this.method = method;
+        this.path = path;
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+}
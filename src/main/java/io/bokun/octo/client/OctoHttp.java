@@ -0,0 +1,251 @@
+package io.bokun.octo.client;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.bokun.octo.gson.OctoTypeAdapterFactory;
+import io.bokun.octo.gson.SerializationListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transport of the generated {@link OctoClient}: sends JSON requests to one OCTO endpoint with
+ * {@link HttpClient} and binds the responses to the generated records.
+ * <p>
+ * A single instance should be shared by all callers of an endpoint, the underlying HttpClient keeps the
+ * connections alive and reuses them. Requests never block the calling thread: response bodies are collected
+ * asynchronously and decoded once complete.
+ */
+public final class OctoHttp {
+    private final HttpClient httpClient;
+    private final String endpoint;
+    private final Gson gson;
+    private final Duration requestTimeout;
+    private final String[] headers;
+    private final OctoResponseCache cache;
+    private final SerializationListener listener;
+
+    private OctoHttp(Builder builder) {
+        var endpoint = builder.endpoint.toString();
+        this.endpoint = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        this.httpClient = builder.httpClient != null
+                ? builder.httpClient
+                : HttpClient.newBuilder().connectTimeout(builder.connectTimeout).build();
+        this.gson = builder.gson != null
+                ? builder.gson
+                : new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory(null, builder.listener)).create();
+        this.requestTimeout = builder.requestTimeout;
+        this.headers = builder.headers.toArray(new String[0]);
+        this.cache = builder.cache;
+        this.listener = builder.listener;
+    }
+
+    /**
+     * @param endpoint the supplier's OCTO endpoint, e.g. https://api.my-booking-platform.com/v1
+     */
+    public static Builder builder(URI endpoint) {
+        return new Builder(endpoint);
+    }
+
+    public Gson gson() {
+        return gson;
+    }
+
+    /**
+     * Sends the request, the returned future completes with the response bound to the given type, or
+     * exceptionally with an {@link OctoClientException} if the endpoint responds with an error status.
+     * If a {@link OctoResponseCache} is configured, the response may be shared with identical requests.
+     *
+     * @param method       HTTP method
+     * @param path         path relative to the endpoint, with path segments and query already encoded
+     * @param body         request body record, serialized as JSON, or null
+     * @param responseType type to bind the response JSON to
+     */
+    public <T> CompletableFuture<T> send(String method, String path, Object body, Type responseType) {
+        if (cache != null) {
+            long ttlNanos = cache.ttlNanos(method, path);
+            if (ttlNanos >= 0) {
+                return cache.get(method, path, body, ttlNanos, () -> this.<T>sendUncached(method, path, body, responseType));
+            }
+        }
+        return sendUncached(method, path, body, responseType);
+    }
+
+    private <T> CompletableFuture<T> sendUncached(String method, String path, Object body, Type responseType) {
+        var request = HttpRequest.newBuilder(URI.create(endpoint + path))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json");
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        if (body != null) {
+            var json = gson.toJson(body).getBytes(StandardCharsets.UTF_8);
+            listener.onBytes(body.getClass(), false, json.length);
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(json));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply((response) -> this.<T>decode(method, path, response, responseType));
+    }
+
+    private <T> T decode(String method, String path, HttpResponse<byte[]> response, Type responseType) {
+        if (response.statusCode() >= 300) {
+            throw new OctoClientException(method, path, response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+        }
+        var elementType = elementType(responseType);
+        listener.onBytes(elementType, true, response.body().length);
+        try (var reader = new InputStreamReader(new ByteArrayInputStream(response.body()), StandardCharsets.UTF_8)) {
+            T value = gson.fromJson(reader, responseType);
+            if (value instanceof List<?> list) {
+                listener.onListSize(elementType.getSimpleName() + "[]", list.size());
+            }
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The class the response is reported under: the element class for arrays, e.g. Availability for
+     * {@code ArrayList<Availability>}
+     */
+    private static Class<?> elementType(Type type) {
+        if (type instanceof ParameterizedType parameterized) {
+            var raw = parameterized.getRawType();
+            if (raw instanceof Class<?> rawClass && List.class.isAssignableFrom(rawClass)) {
+                return elementType(parameterized.getActualTypeArguments()[0]);
+            }
+            return elementType(raw);
+        }
+        return type instanceof Class<?> typeClass ? typeClass : Object.class;
+    }
+
+    /**
+     * Encodes a value to be used as a path segment, e.g. a booking UUID or product id
+     */
+    public static String encodePathSegment(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Path parameters can't be null");
+        }
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /**
+     * Builds a query string from name and value pairs, pairs with a null value are left out
+     *
+     * @return the query string including the leading ?, or an empty string if all values are null
+     */
+    public static String query(String... namesAndValues) {
+        var query = new StringBuilder();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (namesAndValues[i + 1] == null) {
+                continue;
+            }
+            query.append(query.length() == 0 ? '?' : '&')
+                    .append(URLEncoder.encode(namesAndValues[i], StandardCharsets.UTF_8))
+                    .append('=')
+                    .append(URLEncoder.encode(namesAndValues[i + 1], StandardCharsets.UTF_8));
+        }
+        return query.toString();
+    }
+
+    public static final class Builder {
+        private final URI endpoint;
+        private final List<String> headers = new ArrayList<>();
+        private HttpClient httpClient;
+        private Gson gson;
+        private OctoResponseCache cache;
+        private SerializationListener listener = SerializationListener.NOOP;
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration requestTimeout = Duration.ofSeconds(30);
+
+        private Builder(URI endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        /**
+         * Sends the API key as {@code Authorization: Bearer <apiKey>}
+         */
+        public Builder apiKey(String apiKey) {
+            return header("Authorization", "Bearer " + apiKey);
+        }
+
+        /**
+         * Requests the given OCTO capabilities with the {@code Octo-Capabilities} header
+         */
+        public Builder capabilities(String... capabilities) {
+            return header("Octo-Capabilities", String.join(", ", capabilities));
+        }
+
+        public Builder header(String name, String value) {
+            headers.add(name);
+            headers.add(value);
+            return this;
+        }
+
+        /**
+         * Uses the given client instead of creating one, e.g. to share a connection pool or executor between endpoints
+         */
+        public Builder httpClient(HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * Uses the given Gson instead of the default one with {@link OctoTypeAdapterFactory}
+         */
+        public Builder gson(Gson gson) {
+            this.gson = gson;
+            return this;
+        }
+
+        /**
+         * Coalesces identical in-flight requests and caches responses as configured in the cache
+         */
+        public Builder cache(OctoResponseCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        /**
+         * Reports the request and response body sizes, and the records (de)serialized if the default Gson is
+         * used, to the listener, e.g. a {@link io.bokun.octo.gson.SerializationMetrics} shared by all endpoints. Null
+         * for none.
+         */
+        public Builder serializationListener(SerializationListener listener) {
+            this.listener = listener == null ? SerializationListener.NOOP : listener;
+            return this;
+        }
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        public OctoHttp build() {
+            return new OctoHttp(this);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package io.bokun.octo.client;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Response cache for {@link OctoHttp}, keyed on method, path and request body record.
+ * <p>
+ * Identical requests sent while one is in flight share the same upstream call (single-flight), and successful
+ * responses are kept for the TTL configured for the path, e.g. hours for {@code GET /products} and seconds for
+ * {@code POST /availability}. Requests to paths without a TTL rule bypass the cache. Failed calls are never cached.
+ * <p>
+ * The number of entries is bounded: when full, the expired entries and then the entry closest to expiry out of a
+ * small sample are dropped, the sample rotating through the entries from one eviction to the next. All expired
+ * entries are swept at most once every maximumSize inserts. Cached responses are shared between callers, so they
+ * must be treated as read-only.
+ */
+public final class OctoResponseCache {
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final List<Rule> rules;
+    private final int maximumSize;
+    private final LongSupplier nanoClock;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong inserts = new AtomicLong();
+
+    /**
+     * Where the next eviction sample starts, and the insert count of the last full sweep, guarded by this
+     */
+    private Iterator<Map.Entry<Key, Entry>> evictionCursor;
+    private long lastSweep;
+
+    private OctoResponseCache(Builder builder) {
+        this.rules = List.copyOf(builder.rules);
+        this.maximumSize = builder.maximumSize;
+        this.nanoClock = builder.nanoClock;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private record Rule(String method, String pathPrefix, long ttlNanos) {
+        boolean matches(String method, String path) {
+            return this.method.equals(method)
+                    && path.startsWith(pathPrefix)
+                    && (path.length() == pathPrefix.length() || path.charAt(pathPrefix.length()) == '/' || path.charAt(pathPrefix.length()) == '?');
+        }
+    }
+
+    private record Key(String method, String path, Object body) {
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        /**
+         * Only set once the call completed, nanoTime values compare by their difference as they can be negative
+         */
+        volatile long expiresAt;
+        volatile boolean inFlight = true;
+
+        boolean isExpired(long now) {
+            return !inFlight && expiresAt - now <= 0;
+        }
+
+        /**
+         * In-flight entries have no expiry yet, so they are evicted last
+         */
+        boolean expiresBefore(Entry other) {
+            if (inFlight != other.inFlight) {
+                return other.inFlight;
+            }
+            return expiresAt - other.expiresAt < 0;
+        }
+    }
+
+    /**
+     * @return the TTL of the most specific rule for the request in nanos, -1 if the request isn't cached
+     */
+    long ttlNanos(String method, String path) {
+        Rule best = null;
+        for (var rule : rules) {
+            if (rule.matches(method, path) && (best == null || rule.pathPrefix.length() > best.pathPrefix.length())) {
+                best = rule;
+            }
+        }
+        return best == null ? -1 : best.ttlNanos;
+    }
+
+    /**
+     * Returns the cached or in-flight response for the request, or calls upstream if there's none
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<T> get(String method, String path, Object body, long ttlNanos, Supplier<CompletableFuture<T>> upstream) {
+        var key = new Key(method, path, body);
+        while (true) {
+            var entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.isExpired(nanoClock.getAsLong())) {
+                    // A copy, so a caller cancelling its future doesn't cancel it for everyone else
+                    return (CompletableFuture<T>) entry.future.copy();
+                }
+                entries.remove(key, entry);
+                continue;
+            }
+
+            var created = new Entry();
+            if (entries.putIfAbsent(key, created) != null) {
+                continue;
+            }
+            evictIfFull();
+            load(key, created, ttlNanos, (Supplier<CompletableFuture<Object>>) (Supplier<?>) upstream);
+            return (CompletableFuture<T>) created.future.copy();
+        }
+    }
+
+    private void load(Key key, Entry entry, long ttlNanos, Supplier<CompletableFuture<Object>> upstream) {
+        CompletableFuture<Object> call;
+        try {
+            call = upstream.get();
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((value, error) -> {
+            if (error != null || ttlNanos == 0) {
+                entries.remove(key, entry);
+            } else {
+                entry.expiresAt = nanoClock.getAsLong() + ttlNanos;
+                entry.inFlight = false;
+            }
+            if (error != null) {
+                entry.future.completeExceptionally(error);
+            } else {
+                entry.future.complete(value);
+            }
+        });
+    }
+
+    private void evictIfFull() {
+        long count = inserts.incrementAndGet();
+        if (entries.size() <= maximumSize) {
+            return;
+        }
+
+        synchronized (this) {
+            long now = nanoClock.getAsLong();
+            if (count - lastSweep >= maximumSize) {
+                lastSweep = count;
+                entries.values().removeIf((entry) -> entry.isExpired(now));
+            }
+
+            while (entries.size() > maximumSize) {
+                Map.Entry<Key, Entry> victim = null;
+                for (int sampled = 0; sampled < EVICTION_SAMPLE; sampled++) {
+                    if (evictionCursor == null || !evictionCursor.hasNext()) {
+                        evictionCursor = entries.entrySet().iterator();
+                        if (!evictionCursor.hasNext()) {
+                            return;
+                        }
+                    }
+                    var entry = evictionCursor.next();
+                    if (entry.getValue().isExpired(now)) {
+                        entries.remove(entry.getKey(), entry.getValue());
+                    } else if (victim == null || entry.getValue().expiresBefore(victim.getValue())) {
+                        victim = entry;
+                    }
+                }
+                if (victim != null && entries.size() > maximumSize) {
+                    entries.remove(victim.getKey(), victim.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all cached responses, in-flight calls still complete for their callers
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * @return number of cached and in-flight responses
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public static final class Builder {
+        private final List<Rule> rules = new ArrayList<>();
+        private int maximumSize = 10_000;
+        private LongSupplier nanoClock = System::nanoTime;
+
+        private Builder() {
+        }
+
+        /**
+         * Caches responses to the method and path prefix for the given TTL, e.g. {@code ttl("POST", "/availability", ...)}.
+         * The prefix matches whole path segments, the longest matching prefix wins. A TTL of zero only coalesces
+         * concurrent identical requests.
+         */
+        public Builder ttl(String method, String pathPrefix, Duration ttl) {
+            if (ttl.isNegative()) {
+                throw new IllegalArgumentException("TTL can't be negative: " + ttl);
+            }
+            rules.add(new Rule(method.toUpperCase(), pathPrefix, ttl.toNanos()));
+            return this;
+        }
+
+        public Builder maximumSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("maximumSize must be at least 1, got " + maximumSize);
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        public OctoResponseCache build() {
+            return new OctoResponseCache(this);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.bokun.octo.gson;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, concurrent intern table for the values repeated across a catalog, e.g. the {@code timeZone} and
+ * {@code locale} of every product, identical {@code OpeningHours} or, with the immutable lists of listType=List,
+ * {@code requiredContactFields} lists.
+ * Passed to {@link OctoTypeAdapterFactory#OctoTypeAdapterFactory(Interner)}, equal values read by the generated
+ * adapters then share one instance instead of each being a fresh copy.
+ * <p>
+ * Once the table holds maximumSize values, new values are returned as they are while the values already in the
+ * table keep being shared, so memory stays bounded even for unique values such as ids. Strings longer than
+ * {@link #MAX_STRING_LENGTH} are never interned, they are mostly descriptions that don't repeat. Use one table per
+ * catalog load, or {@link #clear()} it between loads, so values of old catalogs aren't retained.
+ */
+public final class Interner {
+    public static final int MAX_STRING_LENGTH = 64;
+
+    private final int maximumSize;
+    private final Map<Object, Object> table = new ConcurrentHashMap<>();
+
+    /**
+     * @param maximumSize the maximum number of distinct values kept
+     */
+    public Interner(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1, got " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @return the instance equal to the value already in the table, or the value itself
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T intern(T value) {
+        if (value instanceof String string && string.length() > MAX_STRING_LENGTH) {
+            return value;
+        }
+        var existing = table.get(value);
+        if (existing != null) {
+            return (T) existing;
+        }
+        if (table.size() >= maximumSize) {
+            return value;
+        }
+        existing = table.putIfAbsent(value, value);
+        return existing != null ? (T) existing : value;
+    }
+
+    /**
+     * @return number of distinct values in the table
+     */
+    public int size() {
+        return table.size();
+    }
+
+    public void clear() {
+        table.clear();
+    }
+}
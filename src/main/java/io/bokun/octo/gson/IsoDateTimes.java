@@ -0,0 +1,269 @@
+package io.bokun.octo.gson;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Parses and formats the ISO-8601 shapes OCTO uses for {@code format: date-time} and {@code format: date} fields,
+ * e.g. {@code 2022-05-12T08:00:00+01:00}, {@code 2022-05-12T07:00:00Z} and {@code 2022-05-12}.
+ * <p>
+ * These shapes are scanned by hand instead of going through {@link DateTimeFormatter}, which is one of the largest
+ * allocation sites when reading availability and bookings. Offsets are cached. Anything else, such as a zone
+ * region suffix ({@code [Europe/London]}) or years beyond 9999, falls back to the full formatter.
+ * <p>
+ * Date-times are written exactly as {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME} writes them: with the seconds,
+ * a fraction only as long as needed ({@code .5}, not {@code .500}), the offset ({@code Z} for UTC) and no zone region.
+ */
+public final class IsoDateTimes {
+    /**
+     * Length of the longest date-time written by hand, e.g. {@code 2022-05-12T08:00:00.123456789+01:00}
+     */
+    public static final int MAX_DATE_TIME_LENGTH = 35;
+    public static final int LOCAL_DATE_LENGTH = 10;
+
+    private static final int MAX_OFFSET_QUARTERS = 18 * 4;
+
+    /**
+     * Offsets in quarter hours from -18:00 to +18:00
+     */
+    private static final ZoneOffset[] OFFSETS = new ZoneOffset[2 * MAX_OFFSET_QUARTERS + 1];
+
+    static {
+        for (int i = 0; i < OFFSETS.length; i++) {
+            OFFSETS[i] = ZoneOffset.ofTotalSeconds((i - MAX_OFFSET_QUARTERS) * 15 * 60);
+        }
+    }
+
+    private IsoDateTimes() {
+    }
+
+    /**
+     * @throws DateTimeException if the value isn't a valid ISO-8601 date-time with an offset or zone
+     */
+    public static ZonedDateTime parseZonedDateTime(String value) {
+        var parsed = tryParseZonedDateTime(value);
+        return parsed != null ? parsed : ZonedDateTime.parse(value, DateTimeFormatter.ISO_ZONED_DATE_TIME);
+    }
+
+    /**
+     * @throws DateTimeException if the value isn't a valid ISO-8601 date
+     */
+    public static LocalDate parseLocalDate(String value) {
+        if (value.length() == 10 && value.charAt(4) == '-' && value.charAt(7) == '-') {
+            int year = digits(value, 0, 4);
+            int month = digits(value, 5, 2);
+            int day = digits(value, 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(value, DateTimeFormatter.ISO_LOCAL_DATE);
+    }
+
+    public static String formatZonedDateTime(ZonedDateTime value) {
+        var bytes = new byte[MAX_DATE_TIME_LENGTH];
+        int length = formatZonedDateTime(value, bytes, 0);
+        return length < 0 ? DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value) : new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes the value as ASCII, for writers encoding straight to bytes
+     *
+     * @param bytes has room for at least {@link #MAX_DATE_TIME_LENGTH} bytes from pos
+     * @return the position after the value, -1 if it isn't a shape written by hand (e.g. years beyond 9999), in
+     * which case {@link #formatZonedDateTime(ZonedDateTime)} falls back to the full formatter
+     */
+    public static int formatZonedDateTime(ZonedDateTime value, byte[] bytes, int pos) {
+        int year = value.getYear();
+        int offsetSeconds = value.getOffset().getTotalSeconds();
+        if (year < 0 || year > 9999 || offsetSeconds % 60 != 0) {
+            return -1;
+        }
+
+        pos = writeDate(bytes, pos, year, value.getMonthValue(), value.getDayOfMonth());
+        bytes[pos++] = 'T';
+        pos = write2(bytes, pos, value.getHour());
+        bytes[pos++] = ':';
+        pos = write2(bytes, pos, value.getMinute());
+        bytes[pos++] = ':';
+        pos = write2(bytes, pos, value.getSecond());
+
+        int nanos = value.getNano();
+        if (nanos != 0) {
+            bytes[pos++] = '.';
+            int digits = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                digits--;
+            }
+            for (int i = digits - 1; i >= 0; i--) {
+                bytes[pos + i] = (byte) ('0' + nanos % 10);
+                nanos /= 10;
+            }
+            pos += digits;
+        }
+
+        if (offsetSeconds == 0) {
+            bytes[pos++] = 'Z';
+        } else {
+            bytes[pos++] = (byte) (offsetSeconds < 0 ? '-' : '+');
+            int offsetMinutes = Math.abs(offsetSeconds) / 60;
+            pos = write2(bytes, pos, offsetMinutes / 60);
+            bytes[pos++] = ':';
+            pos = write2(bytes, pos, offsetMinutes % 60);
+        }
+        return pos;
+    }
+
+    public static String formatLocalDate(LocalDate value) {
+        var bytes = new byte[LOCAL_DATE_LENGTH];
+        int length = formatLocalDate(value, bytes, 0);
+        return length < 0 ? DateTimeFormatter.ISO_LOCAL_DATE.format(value) : new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes the value as ASCII, for writers encoding straight to bytes
+     *
+     * @param bytes has room for at least {@link #LOCAL_DATE_LENGTH} bytes from pos
+     * @return the position after the value, -1 if the year is beyond 0-9999, in which case
+     * {@link #formatLocalDate(LocalDate)} falls back to the full formatter
+     */
+    public static int formatLocalDate(LocalDate value, byte[] bytes, int pos) {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        return writeDate(bytes, pos, year, value.getMonthValue(), value.getDayOfMonth());
+    }
+
+    /**
+     * Scans yyyy-MM-ddTHH:mm[:ss[.fraction]](Z|+HH:MM|+HH), returns null if the value has another shape
+     */
+    private static ZonedDateTime tryParseZonedDateTime(String value) {
+        int length = value.length();
+        if (length < 17 || value.charAt(4) != '-' || value.charAt(7) != '-'
+                || (value.charAt(10) != 'T' && value.charAt(10) != 't') || value.charAt(13) != ':') {
+            return null;
+        }
+        int year = digits(value, 0, 4);
+        int month = digits(value, 5, 2);
+        int day = digits(value, 8, 2);
+        int hour = digits(value, 11, 2);
+        int minute = digits(value, 14, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0) {
+            return null;
+        }
+
+        int pos = 16;
+        int second = 0;
+        int nanos = 0;
+        if (pos < length && value.charAt(pos) == ':') {
+            second = digits(value, pos + 1, 2);
+            if (second < 0) {
+                return null;
+            }
+            pos += 3;
+            if (pos < length && value.charAt(pos) == '.') {
+                pos++;
+                int start = pos;
+                while (pos < length && pos - start < 9 && isDigit(value.charAt(pos))) {
+                    nanos = nanos * 10 + (value.charAt(pos) - '0');
+                    pos++;
+                }
+                if (pos == start) {
+                    return null;
+                }
+                for (int i = pos - start; i < 9; i++) {
+                    nanos *= 10;
+                }
+            }
+        }
+
+        var offset = parseOffset(value, pos);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.of(LocalDateTime.of(year, month, day, hour, minute, second, nanos), offset);
+        } catch (DateTimeException e) {
+            // Let the full formatter produce its detailed error message
+            return null;
+        }
+    }
+
+    private static ZoneOffset parseOffset(String value, int pos) {
+        int length = value.length();
+        if (pos == length - 1 && (value.charAt(pos) == 'Z' || value.charAt(pos) == 'z')) {
+            return ZoneOffset.UTC;
+        }
+        if (pos >= length || (value.charAt(pos) != '+' && value.charAt(pos) != '-')) {
+            return null;
+        }
+        int sign = value.charAt(pos) == '-' ? -1 : 1;
+        int remaining = length - pos - 1;
+        int hours = digits(value, pos + 1, 2);
+        int minutes;
+        // No +HHMM, the full formatter rejects offsets without a colon
+        if (remaining == 2) {
+            minutes = 0;
+        } else if (remaining == 5 && value.charAt(pos + 3) == ':') {
+            minutes = digits(value, pos + 4, 2);
+        } else {
+            return null;
+        }
+        if (hours < 0 || minutes < 0 || hours > 18 || minutes > 59) {
+            return null;
+        }
+        int totalMinutes = sign * (hours * 60 + minutes);
+        if (totalMinutes % 15 == 0 && Math.abs(totalMinutes) <= 18 * 60) {
+            return OFFSETS[totalMinutes / 15 + MAX_OFFSET_QUARTERS];
+        }
+        try {
+            return ZoneOffset.ofTotalSeconds(totalMinutes * 60);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * @return the number made of count digits at the given position, -1 if there's a non-digit
+     */
+    private static int digits(String value, int pos, int count) {
+        if (pos + count > value.length()) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = pos; i < pos + count; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    private static int writeDate(byte[] bytes, int pos, int year, int month, int day) {
+        pos = write2(bytes, pos, year / 100);
+        pos = write2(bytes, pos, year % 100);
+        bytes[pos++] = '-';
+        pos = write2(bytes, pos, month);
+        bytes[pos++] = '-';
+        return write2(bytes, pos, day);
+    }
+
+    private static int write2(byte[] bytes, int pos, int value) {
+        bytes[pos] = (byte) ('0' + value / 10);
+        bytes[pos + 1] = (byte) ('0' + value % 10);
+        return pos + 2;
+    }
+}
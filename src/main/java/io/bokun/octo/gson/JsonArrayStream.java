@@ -0,0 +1,148 @@
+package io.bokun.octo.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a top-level JSON array, such as the response of {@code /products} or {@code /availability/calendar},
+ * one element at a time instead of binding the whole list in memory.
+ * <p>
+ * Only the element being read is held on the heap, so memory stays constant regardless of the response size.
+ * Pull elements with {@link #hasNext()}/{@link #next()}, or push them to a callback with
+ * {@link #forEach(Gson, Reader, Class, Consumer)}. Closing the stream closes the underlying reader.
+ *
+ * @param <T> the element type, e.g. {@link io.bokun.octo.AvailabilityCalendar}
+ */
+public final class JsonArrayStream<T> implements Iterator<T>, Closeable {
+    private final JsonReader reader;
+    private final TypeAdapter<T> adapter;
+    private boolean started;
+    private boolean finished;
+
+    private JsonArrayStream(JsonReader reader, TypeAdapter<T> adapter) {
+        this.reader = reader;
+        this.adapter = adapter;
+    }
+
+    /**
+     * Opens a stream over the array in the given reader, elements are read with the adapter Gson has for the type
+     */
+    public static <T> JsonArrayStream<T> of(Gson gson, Reader reader, Class<T> type) {
+        return new JsonArrayStream<>(gson.newJsonReader(reader), gson.getAdapter(type));
+    }
+
+    /**
+     * Opens a stream over the array in the given UTF-8 encoded input stream
+     */
+    public static <T> JsonArrayStream<T> of(Gson gson, InputStream in, Class<T> type) {
+        return of(gson, new InputStreamReader(in, StandardCharsets.UTF_8), type);
+    }
+
+    /**
+     * Pushes every element of the array to the consumer and closes the reader afterwards
+     *
+     * @return the number of elements read
+     */
+    public static <T> long forEach(Gson gson, Reader reader, Class<T> type, Consumer<? super T> consumer) throws IOException {
+        long count = 0;
+        try (var stream = of(gson, reader, type)) {
+            while (stream.advance()) {
+                consumer.accept(stream.adapter.read(stream.reader));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Pushes every element of the UTF-8 encoded array to the consumer and closes the input stream afterwards
+     *
+     * @return the number of elements read
+     */
+    public static <T> long forEach(Gson gson, InputStream in, Class<T> type, Consumer<? super T> consumer) throws IOException {
+        return forEach(gson, new InputStreamReader(in, StandardCharsets.UTF_8), type, consumer);
+    }
+
+    /**
+     * Moves the reader to the next element, returns false once the end of the array has been consumed
+     */
+    private boolean advance() throws IOException {
+        if (finished) {
+            return false;
+        }
+        if (!started) {
+            started = true;
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                finished = true;
+                return false;
+            }
+            reader.beginArray();
+        }
+        if (reader.hasNext()) {
+            return true;
+        }
+        reader.endArray();
+        finished = true;
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return advance();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return adapter.read(reader);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    /**
+     * A sequential, lazily evaluated {@link Stream} over the remaining elements, closing it closes this reader
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        reader.close();
+    }
+}
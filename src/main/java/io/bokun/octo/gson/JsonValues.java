@@ -0,0 +1,167 @@
+package io.bokun.octo.gson;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import io.bokun.octo.CompactList;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read & write helpers shared by the generated TypeAdapters. They mirror the behaviour of Gson's built-in
+ * adapters for the same types, so switching from reflection to the generated adapters doesn't change the JSON.
+ */
+final class JsonValues {
+    private JsonValues() {
+    }
+
+    /**
+     * Skips the next value, for fields left out of a projection
+     */
+    static <T> T skip(JsonReader in) throws IOException {
+        in.skipValue();
+        return null;
+    }
+
+    static String readString(JsonReader in) throws IOException {
+        var token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    static Boolean readBoolean(JsonReader in) throws IOException {
+        var token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.STRING) {
+            return Boolean.parseBoolean(in.nextString());
+        }
+        return in.nextBoolean();
+    }
+
+    static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return in.nextInt();
+        } catch (NumberFormatException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    static UUID readUuid(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        var value = in.nextString();
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new JsonSyntaxException("Failed parsing '" + value + "' as UUID; at path " + in.getPreviousPath(), e);
+        }
+    }
+
+    static void writeUuid(JsonWriter out, UUID value) throws IOException {
+        out.value(value == null ? null : value.toString());
+    }
+
+    static URL readUrl(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        var value = in.nextString();
+        return "null".equals(value) ? null : new URL(value);
+    }
+
+    static void writeUrl(JsonWriter out, URL value) throws IOException {
+        out.value(value == null ? null : value.toExternalForm());
+    }
+
+    static URI readUri(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        var value = in.nextString();
+        try {
+            return "null".equals(value) ? null : new URI(value);
+        } catch (URISyntaxException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    static void writeUri(JsonWriter out, URI value) throws IOException {
+        out.value(value == null ? null : value.toASCIIString());
+    }
+
+    /**
+     * Reads a JSON array into an ArrayList, the elements are read with the given adapter
+     */
+    static <T> ArrayList<T> readList(JsonReader in, TypeAdapter<T> elementAdapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        var list = new ArrayList<T>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(elementAdapter.read(in));
+        }
+        in.endArray();
+        return list;
+    }
+
+    /**
+     * Reads a JSON array into a {@link CompactList}, for the DTOs generated with listType=List
+     */
+    static <T> List<T> readCompactList(JsonReader in, TypeAdapter<T> elementAdapter) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginArray();
+        if (!in.hasNext()) {
+            in.endArray();
+            return CompactList.empty();
+        }
+        var list = new CompactList.Builder<T>();
+        while (in.hasNext()) {
+            list.add(elementAdapter.read(in));
+        }
+        in.endArray();
+        return list.build();
+    }
+
+    static <T> void writeList(JsonWriter out, List<T> list, TypeAdapter<T> elementAdapter) throws IOException {
+        if (list == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (int i = 0, size = list.size(); i < size; i++) {
+            elementAdapter.write(out, list.get(i));
+        }
+        out.endArray();
+    }
+}
@@ -0,0 +1,35 @@
+package io.bokun.octo.gson;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Gson adapter for the OCTO LocalDate fields, see {@link IsoDateTimes}
+ */
+final class LocalDateTypeAdapter extends TypeAdapter<LocalDate> {
+    @Override
+    public void write(JsonWriter out, LocalDate value) throws IOException {
+        out.value(value == null ? null : IsoDateTimes.formatLocalDate(value));
+    }
+
+    @Override
+    public LocalDate read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        var value = in.nextString();
+        try {
+            return IsoDateTimes.parseLocalDate(value);
+        } catch (DateTimeException e) {
+            throw new JsonSyntaxException("Failed parsing '" + value + "' as LocalDate; at path " + in.getPreviousPath(), e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.bokun.octo.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads a DTO binding only the top-level fields the caller needs, e.g. a status poll only reading {@code uuid},
+ * {@code status} and {@code utcExpiresAt} of a {@link io.bokun.octo.Booking}:
+ * <pre>{@code
+ * var bookingStatus = Projection.of(gson, Booking.class, "uuid", "status", "utcExpiresAt");
+ * Booking booking = bookingStatus.fromJson(json);
+ * }</pre>
+ * The other fields are skipped in the token stream without being decoded, so large sub-trees like
+ * {@code unitItems} or {@code product} cost neither parse time nor garbage. They are null in the returned record.
+ * <p>
+ * Projections work with the adapters of {@link OctoTypeAdapterFactory}, and are thread-safe and reusable.
+ */
+public final class Projection<T> extends TypeAdapter<T> {
+    private final RecordTypeAdapter<T> adapter;
+    private final long fields;
+
+    private Projection(RecordTypeAdapter<T> adapter, long fields) {
+        this.adapter = adapter;
+        this.fields = fields;
+    }
+
+    /**
+     * @param gson   a Gson with {@link OctoTypeAdapterFactory} registered
+     * @param type   the DTO record class
+     * @param fields JSON names of the top-level fields to bind
+     * @throws IllegalArgumentException if the type isn't handled by a generated adapter, or has no such field
+     */
+    public static <T> Projection<T> of(Gson gson, Class<T> type, String... fields) {
+        if (!(gson.getAdapter(type) instanceof RecordTypeAdapter<T> adapter)) {
+            throw new IllegalArgumentException(type.getName() + " isn't read by a generated adapter, register OctoTypeAdapterFactory");
+        }
+        long mask = 0;
+        for (var field : fields) {
+            long bit = adapter.fieldMask(field);
+            if (bit == 0) {
+                throw new IllegalArgumentException(type.getSimpleName() + " has no field " + field);
+            }
+            mask |= bit;
+        }
+        return new Projection<>(adapter, mask);
+    }
+
+    @Override
+    public T read(JsonReader in) throws IOException {
+        return adapter.read(in, fields);
+    }
+
+    /**
+     * Writes the whole record, fields left out of the projection are null
+     */
+    @Override
+    public void write(JsonWriter out, T value) throws IOException {
+        adapter.write(out, value);
+    }
+}
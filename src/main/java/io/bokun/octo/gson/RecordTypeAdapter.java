@@ -0,0 +1,137 @@
+package io.bokun.octo.gson;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Base class of the generated record adapters, adds reading only a subset of the fields (see {@link Projection}),
+ * interning of the values read and the {@link SerializationListener} measurements
+ */
+abstract class RecordTypeAdapter<T> extends TypeAdapter<T> {
+    static final long ALL_FIELDS = -1L;
+
+    /**
+     * Null if the JVM can't measure the bytes allocated by a thread
+     */
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+    /**
+     * Nesting depth of the measured reads & writes on the current thread, only the outermost record is measured
+     */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final Class<T> type;
+    private final Interner interner;
+    private final SerializationListener listener;
+
+    RecordTypeAdapter(Class<T> type, Interner interner, SerializationListener listener) {
+        this.type = type;
+        this.interner = interner;
+        this.listener = listener;
+    }
+
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // No jdk.management module
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * @return the canonical instance of the value if interning is enabled, else the value
+     */
+    final <V> V intern(V value) {
+        return interner == null || value == null ? value : interner.intern(value);
+    }
+
+    /**
+     * Reports the size of a list field read, e.g. {@code Option.units}
+     */
+    final void reportListSize(String list, List<?> value) {
+        if (listener != SerializationListener.NOOP && value != null) {
+            listener.onListSize(list, value.size());
+        }
+    }
+
+    /**
+     * @return the bit of the field with the given JSON name in the fields mask, 0 if the record has no such field
+     */
+    abstract long fieldMask(String jsonName);
+
+    /**
+     * Reads the record, binding only the fields whose bit is set in the mask. The values of the other fields are
+     * skipped in the token stream without being decoded, and are null in the record.
+     */
+    abstract T readFields(JsonReader in, long fields) throws IOException;
+
+    abstract void writeFields(JsonWriter out, T value) throws IOException;
+
+    final T read(JsonReader in, long fields) throws IOException {
+        if (listener == SerializationListener.NOOP) {
+            return readFields(in, fields);
+        }
+        var depth = DEPTH.get();
+        if (depth[0]++ > 0) {
+            try {
+                return readFields(in, fields);
+            } finally {
+                depth[0]--;
+            }
+        }
+        try {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            var value = readFields(in, fields);
+            long nanos = System.nanoTime() - start;
+            listener.onRead(type, nanos, allocated < 0 ? -1 : allocatedBytes() - allocated);
+            return value;
+        } finally {
+            depth[0]--;
+        }
+    }
+
+    @Override
+    public final T read(JsonReader in) throws IOException {
+        return read(in, ALL_FIELDS);
+    }
+
+    @Override
+    public final void write(JsonWriter out, T value) throws IOException {
+        if (listener == SerializationListener.NOOP) {
+            writeFields(out, value);
+            return;
+        }
+        var depth = DEPTH.get();
+        if (depth[0]++ > 0) {
+            try {
+                writeFields(out, value);
+            } finally {
+                depth[0]--;
+            }
+            return;
+        }
+        try {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            writeFields(out, value);
+            long nanos = System.nanoTime() - start;
+            listener.onWrite(type, nanos, allocated < 0 ? -1 : allocatedBytes() - allocated);
+        } finally {
+            depth[0]--;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.bokun.octo.gson;
+
+/**
+ * Receives instrumentation events of the generated adapters, passed to
+ * {@link OctoTypeAdapterFactory#OctoTypeAdapterFactory(Interner, SerializationListener)}. {@link SerializationMetrics}
+ * aggregates them per DTO type.
+ * <p>
+ * Reads and writes are reported per outermost record, e.g. once per {@code Product} of a catalog including its
+ * options and units, with the elapsed nanos and the bytes allocated by the thread meanwhile (-1 if the JVM can't
+ * measure it). Every list field read is reported with its size. With {@link #NOOP}, the default, the adapters skip
+ * all measurements.
+ * <p>
+ * Methods are called on the (de)serializing threads and must be thread-safe and cheap.
+ */
+public interface SerializationListener {
+    SerializationListener NOOP = new SerializationListener() {
+    };
+
+    default void onRead(Class<?> type, long nanos, long allocatedBytes) {
+    }
+
+    default void onWrite(Class<?> type, long nanos, long allocatedBytes) {
+    }
+
+    /**
+     * Size of a payload in bytes, reported where the bytes are known, e.g. by the OCTO client for request and
+     * response bodies. The type is the element type for arrays.
+     *
+     * @param read true for payloads read, false for payloads written
+     */
+    default void onBytes(Class<?> type, boolean read, long bytes) {
+    }
+
+    /**
+     * Size of a list read, e.g. {@code Option.units}, or {@code AvailabilityCalendar[]} for a top-level array
+     */
+    default void onListSize(String list, int size) {
+    }
+}
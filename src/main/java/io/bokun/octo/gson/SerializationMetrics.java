@@ -0,0 +1,178 @@
+package io.bokun.octo.gson;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link SerializationListener} aggregating the reads and writes of every DTO type, and the sizes of the lists read
+ * in power-of-two buckets, e.g. to spot the suppliers sending products with hundreds of options:
+ * <pre>{@code
+ * var metrics = new SerializationMetrics();
+ * var gson = new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory(null, metrics)).create();
+ * ...
+ * System.out.println(metrics.report());
+ * }</pre>
+ * Counters are {@link LongAdder}s, so recording scales with the number of threads. Snapshots are taken without
+ * locking and may be slightly inconsistent across counters while events are recorded.
+ */
+public final class SerializationMetrics implements SerializationListener {
+    /**
+     * Buckets of the list size histograms: 0, 1, 2-3, 4-7, ... up to 2^30 and more
+     */
+    public static final int BUCKETS = 32;
+
+    private final Map<Class<?>, Counters> reads = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Counters> writes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder[]> listSizes = new ConcurrentHashMap<>();
+
+    private static final class Counters {
+        final LongAdder count = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+
+        Stats snapshot() {
+            return new Stats(count.sum(), nanos.sum(), allocatedBytes.sum(), bytes.sum());
+        }
+    }
+
+    /**
+     * Totals of one type and direction
+     *
+     * @param count          number of records (de)serialized
+     * @param nanos          time spent in the adapters
+     * @param allocatedBytes estimate of the bytes allocated by the adapters, 0 if the JVM can't measure it
+     * @param bytes          payload bytes, where reported (e.g. by the OCTO client)
+     */
+    public record Stats(long count, long nanos, long allocatedBytes, long bytes) {
+        public double averageNanos() {
+            return count == 0 ? 0 : (double) nanos / count;
+        }
+    }
+
+    @Override
+    public void onRead(Class<?> type, long nanos, long allocatedBytes) {
+        record(reads, type, nanos, allocatedBytes);
+    }
+
+    @Override
+    public void onWrite(Class<?> type, long nanos, long allocatedBytes) {
+        record(writes, type, nanos, allocatedBytes);
+    }
+
+    private static void record(Map<Class<?>, Counters> counters, Class<?> type, long nanos, long allocatedBytes) {
+        var typeCounters = counters.computeIfAbsent(type, (ignored) -> new Counters());
+        typeCounters.count.increment();
+        typeCounters.nanos.add(nanos);
+        if (allocatedBytes > 0) {
+            typeCounters.allocatedBytes.add(allocatedBytes);
+        }
+    }
+
+    @Override
+    public void onBytes(Class<?> type, boolean read, long bytes) {
+        (read ? reads : writes).computeIfAbsent(type, (ignored) -> new Counters()).bytes.add(bytes);
+    }
+
+    @Override
+    public void onListSize(String list, int size) {
+        listSizes.computeIfAbsent(list, (ignored) -> newHistogram())[bucket(size)].increment();
+    }
+
+    private static LongAdder[] newHistogram() {
+        var histogram = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = new LongAdder();
+        }
+        return histogram;
+    }
+
+    /**
+     * @return the histogram bucket of a list size: 0 for empty lists, else 1 + floor(log2(size))
+     */
+    public static int bucket(int size) {
+        return size <= 0 ? 0 : Math.min(BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(size));
+    }
+
+    /**
+     * @return the totals of the reads, by DTO type
+     */
+    public Map<Class<?>, Stats> reads() {
+        return snapshot(reads);
+    }
+
+    /**
+     * @return the totals of the writes, by DTO type
+     */
+    public Map<Class<?>, Stats> writes() {
+        return snapshot(writes);
+    }
+
+    private static Map<Class<?>, Stats> snapshot(Map<Class<?>, Counters> counters) {
+        var snapshot = new TreeMap<Class<?>, Stats>((a, b) -> a.getName().compareTo(b.getName()));
+        counters.forEach((type, typeCounters) -> snapshot.put(type, typeCounters.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * @return the list size histograms, e.g. {@code Option.units}, see {@link #bucket(int)}
+     */
+    public Map<String, long[]> listSizes() {
+        var snapshot = new TreeMap<String, long[]>();
+        listSizes.forEach((list, histogram) -> {
+            var counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = histogram[i].sum();
+            }
+            snapshot.put(list, counts);
+        });
+        return snapshot;
+    }
+
+    public void reset() {
+        reads.clear();
+        writes.clear();
+        listSizes.clear();
+    }
+
+    /**
+     * @return a human-readable table of the totals and the non-empty histogram buckets
+     */
+    public String report() {
+        var report = new StringBuilder();
+        appendStats(report, "read", reads());
+        appendStats(report, "write", writes());
+        listSizes().forEach((list, counts) -> {
+            report.append("list ").append(list).append(':');
+            for (int i = 0; i < BUCKETS; i++) {
+                if (counts[i] > 0) {
+                    report.append(' ').append(bucketLabel(i)).append('=').append(counts[i]);
+                }
+            }
+            report.append('\n');
+        });
+        return report.toString();
+    }
+
+    private static void appendStats(StringBuilder report, String direction, Map<Class<?>, Stats> stats) {
+        stats.forEach((type, typeStats) -> report.append(String.format(
+                "%s %s: count=%d avgNanos=%.0f allocatedBytes=%d bytes=%d%n",
+                direction,
+                type.getSimpleName(),
+                typeStats.count(),
+                typeStats.averageNanos(),
+                typeStats.allocatedBytes(),
+                typeStats.bytes()
+        )));
+    }
+
+    private static String bucketLabel(int bucket) {
+        if (bucket <= 1) {
+            return String.valueOf(bucket);
+        }
+        long from = 1L << (bucket - 1);
+        return bucket == BUCKETS - 1 ? from + "+" : from + "-" + ((from << 1) - 1);
+    }
+}
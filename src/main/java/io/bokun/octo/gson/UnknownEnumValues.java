@@ -0,0 +1,84 @@
+package io.bokun.octo.gson;
+
+import com.google.gson.stream.JsonReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the enum values unknown to the spec read by the generated adapters on the current thread. The adapters
+ * read them as null like Gson does, so without recording, an unknown value of a nullable enum such as
+ * {@code Availability.status} can't be told from a missing one:
+ * <pre>{@code
+ * try (var unknownEnumValues = UnknownEnumValues.record()) {
+ *     var body = gson.fromJson(json, PostBookings.class);
+ *     var violations = OctoValidators.validate(body, unknownEnumValues);
+ * }
+ * }</pre>
+ * Recordings nest, each one only sees the values read while it's the innermost open one. The recording is held in
+ * a thread-local until it's closed, and allocates nothing else until it sees an unknown value.
+ */
+public final class UnknownEnumValues implements AutoCloseable {
+    private static final ThreadLocal<UnknownEnumValues> RECORDING = new ThreadLocal<>();
+
+    /**
+     * An enum value unknown to the spec
+     *
+     * @param path  JSON path of the value, e.g. {@code $.deliveryFormats[1]}
+     * @param value the value as read
+     */
+    public record Value(String path, String value) {
+    }
+
+    private final UnknownEnumValues outer;
+    private List<Value> values;
+
+    private UnknownEnumValues(UnknownEnumValues outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * Starts recording on the current thread until the returned recording is closed
+     */
+    public static UnknownEnumValues record() {
+        var recording = new UnknownEnumValues(RECORDING.get());
+        RECORDING.set(recording);
+        return recording;
+    }
+
+    /**
+     * Called by the generated enum adapters on a value none of the constants match
+     *
+     * @return null, the value the unknown constant is read as
+     */
+    static <E> E unknown(JsonReader in, String value) {
+        var recording = RECORDING.get();
+        if (recording != null) {
+            if (recording.values == null) {
+                recording.values = new ArrayList<>();
+            }
+            recording.values.add(new Value(in.getPreviousPath(), value));
+        }
+        return null;
+    }
+
+    /**
+     * @return the unknown values read so far, in reading order
+     */
+    public List<Value> values() {
+        return values == null ? List.of() : List.copyOf(values);
+    }
+
+    public boolean isEmpty() {
+        return values == null;
+    }
+
+    @Override
+    public void close() {
+        if (outer == null) {
+            RECORDING.remove();
+        } else {
+            RECORDING.set(outer);
+        }
+    }
+}
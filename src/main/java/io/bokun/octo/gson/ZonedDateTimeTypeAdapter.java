@@ -0,0 +1,35 @@
+package io.bokun.octo.gson;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.ZonedDateTime;
+
+/**
+ * Gson adapter for the OCTO ZonedDateTime fields, see {@link IsoDateTimes}
+ */
+final class ZonedDateTimeTypeAdapter extends TypeAdapter<ZonedDateTime> {
+    @Override
+    public void write(JsonWriter out, ZonedDateTime value) throws IOException {
+        out.value(value == null ? null : IsoDateTimes.formatZonedDateTime(value));
+    }
+
+    @Override
+    public ZonedDateTime read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        var value = in.nextString();
+        try {
+            return IsoDateTimes.parseZonedDateTime(value);
+        } catch (DateTimeException e) {
+            throw new JsonSyntaxException("Failed parsing '" + value + "' as ZonedDateTime; at path " + in.getPreviousPath(), e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.bokun.octo.hold;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A reservation kept on hold by a {@link HoldScheduler}
+ *
+ * @param supplier  key of the supplier the booking was made with, see {@link HoldScheduler#builder(java.util.function.Function)}
+ * @param uuid      the booking's uuid
+ * @param expiresAt when the supplier releases the reservation unless it's extended, the booking's {@code utcExpiresAt}
+ * @param holdUntil when the scheduler stops extending the reservation and releases it
+ */
+public record Hold(String supplier, UUID uuid, Instant expiresAt, Instant holdUntil) {
+}
@@ -0,0 +1,196 @@
+package io.bokun.octo.hold;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only file of the pending holds, so a {@link HoldScheduler} resumes them after a restart. Layout, big-endian:
+ * <pre>
+ * header:  magic, version (ints)
+ * records: PUT, uuid (2 longs), supplier (modified UTF-8), expiresAt, holdUntil (epoch millis)
+ *          REMOVE, uuid (2 longs)
+ * </pre>
+ * Replaying the records gives the pending holds; a torn last record (e.g. after a crash) is dropped. Once enough
+ * records are obsolete the file is rewritten with the pending holds only, next to the current one and atomically
+ * moved in place. Not thread-safe, the journal belongs to the scheduler thread.
+ */
+final class HoldJournal implements AutoCloseable {
+    static final int MAGIC = 0x4F484A4C;
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 8;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    /**
+     * Obsolete records tolerated before compacting, on top of one per pending hold
+     */
+    private static final int COMPACTION_SLACK = 1024;
+
+    private final Path file;
+    private DataOutputStream out;
+    private long records;
+    private boolean dirty;
+
+    private HoldJournal(Path file, long records) throws IOException {
+        this.file = file;
+        this.records = records;
+        this.out = append(file);
+    }
+
+    /**
+     * Opens the journal in the given file, which doesn't have to exist yet, and replays it
+     *
+     * @param pending receives the pending holds, in the order they were first journaled
+     * @throws IllegalStateException if the file isn't a hold journal written by this version
+     */
+    static HoldJournal open(Path file, Map<UUID, Hold> pending) throws IOException {
+        if (!Files.exists(file)) {
+            write(file, List.of());
+            return new HoldJournal(file, 0);
+        }
+
+        long records = 0;
+        long validLength = HEADER_SIZE;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not a hold journal: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported hold journal version " + version);
+            }
+            var replayed = new LinkedHashMap<UUID, Hold>();
+            while (true) {
+                int type = in.read();
+                if (type < 0) {
+                    break;
+                }
+                try {
+                    var uuid = new UUID(in.readLong(), in.readLong());
+                    if (type == PUT) {
+                        var supplier = in.readUTF();
+                        var hold = new Hold(supplier, uuid, Instant.ofEpochMilli(in.readLong()), Instant.ofEpochMilli(in.readLong()));
+                        replayed.put(uuid, hold);
+                        validLength += 1 + 16 + 2 + utfLength(supplier) + 16;
+                    } else if (type == REMOVE) {
+                        replayed.remove(uuid);
+                        validLength += 1 + 16;
+                    } else {
+                        throw new IllegalStateException("Corrupt hold journal " + file + " at byte " + validLength);
+                    }
+                    records++;
+                } catch (EOFException e) {
+                    // Torn last record
+                    break;
+                }
+            }
+            pending.putAll(replayed);
+        } catch (EOFException e) {
+            throw new IllegalStateException("Not a hold journal: " + file, e);
+        }
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            if (channel.size() > validLength) {
+                channel.truncate(validLength);
+            }
+        }
+        return new HoldJournal(file, records);
+    }
+
+    private static int utfLength(String value) {
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += c >= 1 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        return length;
+    }
+
+    private static DataOutputStream append(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.APPEND)));
+    }
+
+    private static void write(Path file, Collection<Hold> holds) throws IOException {
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (var hold : holds) {
+                writePut(out, hold);
+            }
+        }
+    }
+
+    private static void writePut(DataOutputStream out, Hold hold) throws IOException {
+        out.writeByte(PUT);
+        out.writeLong(hold.uuid().getMostSignificantBits());
+        out.writeLong(hold.uuid().getLeastSignificantBits());
+        out.writeUTF(hold.supplier());
+        out.writeLong(hold.expiresAt().toEpochMilli());
+        out.writeLong(hold.holdUntil().toEpochMilli());
+    }
+
+    /**
+     * Records a new hold, or the new expiry of a hold
+     */
+    void put(Hold hold) throws IOException {
+        writePut(out, hold);
+        records++;
+        dirty = true;
+    }
+
+    void remove(UUID uuid) throws IOException {
+        out.writeByte(REMOVE);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+        records++;
+        dirty = true;
+    }
+
+    /**
+     * Hands the records written since the last flush to the OS, and compacts the file if enough records are obsolete
+     *
+     * @param pending the holds still pending
+     */
+    void flush(Collection<Hold> pending) throws IOException {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        if (records <= pending.size() + COMPACTION_SLACK) {
+            out.flush();
+            return;
+        }
+
+        out.close();
+        var next = file.resolveSibling(file.getFileName() + ".next");
+        try {
+            write(next, pending);
+            Files.move(next, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(next);
+            out = append(file);
+        }
+        records = pending.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,46 @@
+package io.bokun.octo.hold;
+
+import io.bokun.octo.Booking;
+
+/**
+ * Notified of the lifecycle of the holds of a {@link HoldScheduler}, on the scheduler thread: implementations must
+ * not block. Exceptions thrown by the listener are logged and don't affect the holds.
+ */
+public interface HoldListener {
+    HoldListener NOOP = new HoldListener() {
+    };
+
+    /**
+     * The reservation was extended, the hold now expires at the booking's {@code utcExpiresAt}
+     */
+    default void onExtended(Hold hold, Booking booking) {
+    }
+
+    /**
+     * The hold reached its holdUntil, or was released, and the reservation was cancelled. The booking is null if the
+     * supplier answered the cancellation without a body.
+     */
+    default void onReleased(Hold hold, Booking booking) {
+    }
+
+    /**
+     * The supplier answered an extension with a booking that isn't {@code ON_HOLD} anymore (e.g. confirmed or
+     * cancelled elsewhere), the hold is dropped
+     */
+    default void onEnded(Hold hold, Booking booking) {
+    }
+
+    /**
+     * The reservation reached its expiry without being extended or released, e.g. after failed calls, the hold is
+     * dropped
+     */
+    default void onExpired(Hold hold) {
+    }
+
+    /**
+     * An extension or release call failed, or an extension was answered without a booking, it's retried while the
+     * reservation hasn't expired
+     */
+    default void onFailed(Hold hold, Throwable error) {
+    }
+}
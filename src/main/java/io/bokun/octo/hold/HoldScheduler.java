@@ -0,0 +1,525 @@
+package io.bokun.octo.hold;
+
+import io.bokun.octo.Booking;
+import io.bokun.octo.BookingStatus;
+import io.bokun.octo.client.OctoClient;
+import io.bokun.octo.requestBody.PostBookingsUuidCancel;
+import io.bokun.octo.requestBody.PostBookingsUuidExtend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps reservations made through {@code POST /bookings} on hold: extends them with
+ * {@code POST /bookings/{uuid}/extend} shortly before their {@code utcExpiresAt} until the caller confirms or
+ * forgets them, and releases them with {@code POST /bookings/{uuid}/cancel} once their hold time is over.
+ * <pre>{@code
+ * var scheduler = HoldScheduler.builder(clientsBySupplier::get)
+ *         .expirationMinutes(30)
+ *         .journal(Path.of("holds.journal"))
+ *         .build();
+ * var booking = client.postBookings(body).join();
+ * scheduler.hold("supplier-1", booking, Instant.now().plus(Duration.ofHours(2)));
+ * ...
+ * scheduler.forget(booking.uuid()); // confirmed
+ * }</pre>
+ * All holds share one {@link TimingWheel} advanced by a single scheduler thread, so scheduling a hold is O(1) and
+ * the thread count doesn't grow with the number of holds. The calls due in a tick are queued per supplier and sent
+ * with at most {@code maxConcurrency} in flight per supplier, through the async {@link OctoClient}. Failed calls are
+ * retried until the reservation expires.
+ * <p>
+ * With a journal, every hold and extension is appended to a local file flushed each tick, and the pending holds are
+ * resumed on the next start. Holds are only read by other threads through {@link #get(UUID)} and {@link #size()},
+ * which reflect the commands processed so far.
+ */
+public final class HoldScheduler implements AutoCloseable {
+    private static final System.Logger LOGGER = System.getLogger(HoldScheduler.class.getName());
+    private static final PostBookingsUuidCancel RELEASE = new PostBookingsUuidCancel("Reservation hold released", null);
+
+    private final Function<String, OctoClient> clients;
+    private final long tickMillis;
+    private final long tickNanos;
+    private final long extendBeforeMillis;
+    private final long retryAfterMillis;
+    private final PostBookingsUuidExtend extension;
+    private final int maxConcurrency;
+    private final HoldListener listener;
+    private final Clock clock;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Published copy of the holds, written on the scheduler thread only
+     */
+    private final Map<UUID, Hold> holds = new ConcurrentHashMap<>();
+
+    // Scheduler thread only
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final Map<String, SupplierCalls> suppliers = new HashMap<>();
+    private final TimingWheel<Entry> wheel;
+    private final HoldJournal journal;
+
+    private HoldScheduler(Builder builder, Map<UUID, Hold> resumed, HoldJournal journal) {
+        this.clients = builder.clients;
+        this.tickMillis = builder.tick.toMillis();
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.extendBeforeMillis = builder.extendBefore.toMillis();
+        this.retryAfterMillis = builder.retryAfter.toMillis();
+        this.extension = new PostBookingsUuidExtend(builder.expirationMinutes);
+        this.maxConcurrency = builder.maxConcurrency;
+        this.listener = builder.listener;
+        this.clock = builder.clock;
+        this.nanoClock = builder.nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        this.journal = journal;
+        this.wheel = new TimingWheel<>(0);
+
+        this.executor = new ScheduledThreadPoolExecutor(1, (runnable) -> {
+            var thread = new Thread(runnable, "octo-hold-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        resumed.values().forEach((hold) -> post(() -> add(hold, false)));
+        executor.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param clients the client of every supplier key passed to {@link #hold(String, Booking, Instant)}
+     */
+    public static Builder builder(Function<String, OctoClient> clients) {
+        return new Builder(clients);
+    }
+
+    /**
+     * State of a hold, on the scheduler thread
+     */
+    private static final class Entry {
+        final TimingWheel.Timer<Entry> timer = new TimingWheel.Timer<>(this);
+        Hold hold;
+        boolean queued;
+        boolean inFlight;
+        boolean releaseRequested;
+        boolean dropped;
+
+        Entry(Hold hold) {
+            this.hold = hold;
+        }
+    }
+
+    /**
+     * The calls of one supplier waiting for a free slot, and the number in flight
+     */
+    private static final class SupplierCalls {
+        final ArrayDeque<Entry> queue = new ArrayDeque<>();
+        int inFlight;
+    }
+
+    /**
+     * Starts keeping the reservation on hold until {@code holdUntil}, replacing the previous hold of the booking
+     *
+     * @param supplier key of the supplier's client, see {@link #builder(Function)}
+     * @throws IllegalArgumentException if the booking isn't {@code ON_HOLD} or has no {@code utcExpiresAt}
+     */
+    public void hold(String supplier, Booking booking, Instant holdUntil) {
+        if (booking.status() != BookingStatus.ON_HOLD || booking.utcExpiresAt() == null) {
+            throw new IllegalArgumentException("Booking " + booking.uuid() + " isn't on hold: " + booking.status());
+        }
+        var hold = new Hold(supplier, booking.uuid(), booking.utcExpiresAt().toInstant(), holdUntil);
+        post(() -> add(hold, true));
+    }
+
+    /**
+     * Cancels the reservation now instead of at the end of its hold
+     */
+    public void release(UUID uuid) {
+        post(() -> {
+            var entry = entries.get(uuid);
+            if (entry != null) {
+                entry.releaseRequested = true;
+                if (entry.timer.isScheduled()) {
+                    wheel.cancel(entry.timer);
+                    enqueue(entry);
+                    dispatch(entry.hold.supplier());
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops keeping the reservation on hold without any call, e.g. once it's confirmed. A call in flight completes
+     * but its result is ignored.
+     */
+    public void forget(UUID uuid) {
+        post(() -> {
+            var entry = entries.get(uuid);
+            if (entry != null) {
+                drop(entry);
+            }
+        });
+    }
+
+    /**
+     * @return the hold of the booking, null if there's none
+     */
+    public Hold get(UUID uuid) {
+        return holds.get(uuid);
+    }
+
+    /**
+     * @return number of holds
+     */
+    public int size() {
+        return holds.size();
+    }
+
+    /**
+     * Stops the scheduler thread, the calls in flight complete but their results are ignored. With a journal, the
+     * pending holds are resumed by the next scheduler opening it.
+     */
+    @Override
+    public void close() throws IOException {
+        post(this::flushJournal);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(tickMillis + 10_000, TimeUnit.MILLISECONDS)) {
+                LOGGER.log(System.Logger.Level.WARNING, "Hold scheduler didn't stop in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Runs the command on the scheduler thread, dropped once the scheduler is closed
+     */
+    private void post(Runnable command) {
+        try {
+            executor.execute(() -> {
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.ERROR, "Hold scheduler command failed", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Closed
+        }
+    }
+
+    private void tick() {
+        try {
+            wheel.advance((nanoClock.getAsLong() - startNanos) / tickNanos, (timer) -> {
+                // One failing hold mustn't skip the rest of the slot
+                try {
+                    due(timer.value);
+                } catch (RuntimeException e) {
+                    LOGGER.log(System.Logger.Level.ERROR, "Hold " + timer.value.hold.uuid() + " failed", e);
+                }
+            });
+            suppliers.keySet().forEach(this::dispatch);
+            flushJournal();
+        } catch (RuntimeException e) {
+            // Keep ticking, scheduleAtFixedRate stops at the first exception
+            LOGGER.log(System.Logger.Level.ERROR, "Hold scheduler tick failed", e);
+        }
+    }
+
+    private void flushJournal() {
+        if (journal != null) {
+            try {
+                journal.flush(holds.values());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void add(Hold hold, boolean journaled) {
+        var entry = entries.get(hold.uuid());
+        if (entry == null) {
+            entry = new Entry(hold);
+            entries.put(hold.uuid(), entry);
+        } else {
+            entry.hold = hold;
+            entry.releaseRequested = false;
+            wheel.cancel(entry.timer);
+        }
+        update(entry, hold, journaled);
+        if (!entry.queued && !entry.inFlight) {
+            schedule(entry, nextCall(hold, clock.millis(), false));
+        }
+    }
+
+    private void update(Entry entry, Hold hold, boolean journaled) {
+        entry.hold = hold;
+        holds.put(hold.uuid(), hold);
+        if (journaled && journal != null) {
+            try {
+                journal.put(hold);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void drop(Entry entry) {
+        entry.dropped = true;
+        wheel.cancel(entry.timer);
+        entries.remove(entry.hold.uuid());
+        holds.remove(entry.hold.uuid());
+        if (journal != null) {
+            try {
+                journal.remove(entry.hold.uuid());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @return when to release the hold, or to extend it: extendBefore its expiry, but after an extension not before
+     * a retry delay, so a supplier extending by less than extendBefore isn't called every tick
+     */
+    private long nextCall(Hold hold, long now, boolean extended) {
+        long holdUntil = hold.holdUntil().toEpochMilli();
+        long expiresAt = hold.expiresAt().toEpochMilli();
+        if (holdUntil <= expiresAt) {
+            return holdUntil;
+        }
+        long extendAt = expiresAt - extendBeforeMillis;
+        return Math.min(holdUntil, extended ? Math.max(extendAt, now + retryAfterMillis) : extendAt);
+    }
+
+    /**
+     * Schedules the call at the given wall clock time. The wheel runs on System.nanoTime(), so a wall clock step
+     * only shifts the calls scheduled after it instead of stalling the wheel.
+     */
+    private void schedule(Entry entry, long millis) {
+        long nanos = nanoClock.getAsLong() - startNanos + TimeUnit.MILLISECONDS.toNanos(millis - clock.millis());
+        // Round up, the wheel never fires early
+        wheel.schedule(entry.timer, -Math.floorDiv(-nanos, tickNanos));
+    }
+
+    /**
+     * Calls a listener method, a listener failing doesn't affect the hold
+     */
+    private void notifyListener(Runnable callback) {
+        try {
+            callback.run();
+        } catch (RuntimeException e) {
+            LOGGER.log(System.Logger.Level.WARNING, "Hold listener failed", e);
+        }
+    }
+
+    private void due(Entry entry) {
+        if (clock.millis() >= entry.hold.expiresAt().toEpochMilli()) {
+            var hold = entry.hold;
+            drop(entry);
+            notifyListener(() -> listener.onExpired(hold));
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        if (!entry.queued && !entry.inFlight) {
+            entry.queued = true;
+            suppliers.computeIfAbsent(entry.hold.supplier(), (ignored) -> new SupplierCalls()).queue.add(entry);
+        }
+    }
+
+    /**
+     * Sends the queued calls of the supplier while less than maxConcurrency are in flight
+     */
+    private void dispatch(String supplier) {
+        var calls = suppliers.get(supplier);
+        while (calls.inFlight < maxConcurrency && !calls.queue.isEmpty()) {
+            var entry = calls.queue.poll();
+            entry.queued = false;
+            if (entry.dropped) {
+                continue;
+            }
+            var hold = entry.hold;
+            long now = clock.millis();
+            if (now >= hold.expiresAt().toEpochMilli()) {
+                drop(entry);
+                notifyListener(() -> listener.onExpired(hold));
+                continue;
+            }
+
+            boolean release = entry.releaseRequested || now >= hold.holdUntil().toEpochMilli();
+            CompletableFuture<Booking> call;
+            try {
+                var client = clients.apply(supplier);
+                var uuid = hold.uuid().toString();
+                call = release ? client.postBookingsUuidCancel(uuid, RELEASE) : client.postBookingsUuidExtend(uuid, extension);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+            entry.inFlight = true;
+            calls.inFlight++;
+            call.whenComplete((booking, error) -> post(() -> completed(entry, supplier, release, booking, error)));
+        }
+    }
+
+    private void completed(Entry entry, String supplier, boolean release, Booking booking, Throwable error) {
+        entry.inFlight = false;
+        suppliers.get(supplier).inFlight--;
+        try {
+            if (entry.dropped) {
+                return;
+            }
+            var hold = entry.hold;
+            long now = clock.millis();
+            if (error == null && booking == null && !release) {
+                error = new IllegalStateException("Empty response to the extension of booking " + hold.uuid());
+            }
+            if (error != null) {
+                var cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                notifyListener(() -> listener.onFailed(hold, cause));
+                schedule(entry, Math.min(now + retryAfterMillis, hold.expiresAt().toEpochMilli()));
+            } else if (release) {
+                drop(entry);
+                notifyListener(() -> listener.onReleased(hold, booking));
+            } else if (booking.status() != BookingStatus.ON_HOLD || booking.utcExpiresAt() == null) {
+                drop(entry);
+                notifyListener(() -> listener.onEnded(hold, booking));
+            } else {
+                var extended = new Hold(hold.supplier(), hold.uuid(), booking.utcExpiresAt().toInstant(), hold.holdUntil());
+                update(entry, extended, true);
+                notifyListener(() -> listener.onExtended(extended, booking));
+                if (entry.releaseRequested) {
+                    enqueue(entry);
+                } else {
+                    schedule(entry, nextCall(extended, now, true));
+                }
+            }
+        } catch (RuntimeException e) {
+            // E.g. the journal failed: retry rather than leave the hold neither scheduled, queued nor dropped
+            LOGGER.log(System.Logger.Level.ERROR, "Hold " + entry.hold.uuid() + " failed", e);
+            if (!entry.dropped && !entry.queued && !entry.timer.isScheduled()) {
+                schedule(entry, Math.min(clock.millis() + retryAfterMillis, entry.hold.expiresAt().toEpochMilli()));
+            }
+        } finally {
+            dispatch(supplier);
+        }
+    }
+
+    public static final class Builder {
+        private final Function<String, OctoClient> clients;
+        private Duration tick = Duration.ofSeconds(1);
+        private Duration extendBefore = Duration.ofMinutes(2);
+        private Duration retryAfter = Duration.ofSeconds(15);
+        private Integer expirationMinutes;
+        private int maxConcurrency = 4;
+        private HoldListener listener = HoldListener.NOOP;
+        private Path journal;
+        private Clock clock = Clock.systemUTC();
+        private LongSupplier nanoClock = System::nanoTime;
+
+        private Builder(Function<String, OctoClient> clients) {
+            this.clients = clients;
+        }
+
+        /**
+         * Resolution of the scheduler, calls are made up to one tick late
+         */
+        public Builder tick(Duration tick) {
+            if (tick.toMillis() < 1) {
+                throw new IllegalArgumentException("tick must be at least 1ms, got " + tick);
+            }
+            this.tick = tick;
+            return this;
+        }
+
+        /**
+         * How long before {@code utcExpiresAt} a reservation is extended, should be shorter than an extension
+         */
+        public Builder extendBefore(Duration extendBefore) {
+            this.extendBefore = extendBefore;
+            return this;
+        }
+
+        /**
+         * Delay before retrying a failed call
+         */
+        public Builder retryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+            return this;
+        }
+
+        /**
+         * Minutes a reservation is extended by, null for the supplier's default
+         */
+        public Builder expirationMinutes(Integer expirationMinutes) {
+            this.expirationMinutes = expirationMinutes;
+            return this;
+        }
+
+        /**
+         * Most calls in flight per supplier
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be at least 1, got " + maxConcurrency);
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public Builder listener(HoldListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Journals the holds to the given file, which doesn't have to exist yet, and resumes the holds it has
+         */
+        public Builder journal(Path journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        Builder clock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        Builder nanoClock(LongSupplier nanoClock) {
+            this.nanoClock = nanoClock;
+            return this;
+        }
+
+        /**
+         * Starts the scheduler
+         *
+         * @throws IllegalStateException if the journal file isn't a hold journal written by this version
+         */
+        public HoldScheduler build() throws IOException {
+            var resumed = new LinkedHashMap<UUID, Hold>();
+            var openedJournal = journal == null ? null : HoldJournal.open(journal, resumed);
+            return new HoldScheduler(this, resumed, openedJournal);
+        }
+    }
+}
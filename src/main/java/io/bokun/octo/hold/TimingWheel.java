@@ -0,0 +1,133 @@
+package io.bokun.octo.hold;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@link #LEVELS} wheels of {@link #SLOTS} slots, level n slots spanning 64^n ticks.
+ * A timer goes to the level whose span fits its delay, and is moved down a level when the slot it's in comes up,
+ * so scheduling and cancelling are O(1) and every tick only touches the timers of one slot per level.
+ * <p>
+ * Timers are intrusive doubly-linked list nodes, nothing is allocated per tick. Not thread-safe, the wheel belongs
+ * to the thread advancing it.
+ */
+final class TimingWheel<T> {
+    static final int LEVELS = 6;
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+
+    /**
+     * Longest delay the levels span, timers further out wait in the top level and are placed again as it turns
+     */
+    private static final long MAX_DELAY = (1L << (LEVELS * SLOT_BITS)) - 1;
+
+    static final class Timer<T> {
+        final T value;
+        long deadline;
+        private Timer<T> previous;
+        private Timer<T> next;
+
+        Timer(T value) {
+            this.value = value;
+        }
+
+        boolean isScheduled() {
+            return previous != null;
+        }
+    }
+
+    /**
+     * Sentinel heads of the slot lists, by level then slot
+     */
+    private final Timer<T>[] slots;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+        this.slots = new Timer[LEVELS * SLOTS];
+        for (int i = 0; i < slots.length; i++) {
+            var head = new Timer<T>(null);
+            head.previous = head;
+            head.next = head;
+            slots[i] = head;
+        }
+    }
+
+    long currentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules the timer, cancelling it first if it's scheduled. Deadlines not after the current tick expire on
+     * the next one.
+     */
+    void schedule(Timer<T> timer, long deadline) {
+        cancel(timer);
+        timer.deadline = Math.max(deadline, currentTick + 1);
+        insert(timer);
+        size++;
+    }
+
+    void cancel(Timer<T> timer) {
+        if (timer.isScheduled()) {
+            timer.previous.next = timer.next;
+            timer.next.previous = timer.previous;
+            timer.previous = null;
+            timer.next = null;
+            size--;
+        }
+    }
+
+    private void insert(Timer<T> timer) {
+        long delay = Math.min(timer.deadline - currentTick, MAX_DELAY);
+        int level = delay < SLOTS ? 0 : (63 - Long.numberOfLeadingZeros(delay)) / SLOT_BITS;
+        long placement = currentTick + delay;
+        int slot = (int) (placement >>> (level * SLOT_BITS)) & (SLOTS - 1);
+        var head = slots[level * SLOTS + slot];
+        timer.previous = head.previous;
+        timer.next = head;
+        head.previous.next = timer;
+        head.previous = timer;
+    }
+
+    /**
+     * Advances the wheel tick by tick up to the given tick, handing the expired timers to the consumer. The timers
+     * are unscheduled when handed over, the consumer may schedule them again.
+     */
+    void advance(long tick, Consumer<Timer<T>> expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            // Move the timers of the upper slots coming up down, outermost level first
+            int levels = 1;
+            while (levels < LEVELS && (currentTick & ((1L << (levels * SLOT_BITS)) - 1)) == 0) {
+                levels++;
+            }
+            for (int level = levels - 1; level > 0; level--) {
+                cascade(level, (int) (currentTick >>> (level * SLOT_BITS)) & (SLOTS - 1));
+            }
+            var head = slots[(int) currentTick & (SLOTS - 1)];
+            while (head.next != head) {
+                var timer = head.next;
+                cancel(timer);
+                expired.accept(timer);
+            }
+        }
+    }
+
+    private void cascade(int level, int slot) {
+        var head = slots[level * SLOTS + slot];
+        var timer = head.next;
+        head.previous = head;
+        head.next = head;
+        while (timer != head) {
+            var next = timer.next;
+            insert(timer);
+            timer = next;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.bokun.octo.json;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Bounded pool of equally sized heap {@link ByteBuffer}s, the chunks {@link JsonEncoder} writes into. Buffers are
+ * allocated on demand when the pool is empty, and dropped on release when it's full.
+ * <p>
+ * Thread-safe. A released buffer must no longer be used by the caller.
+ */
+public final class ByteBufferPool {
+    /**
+     * Room for the longest value written without a bounds check, e.g. an escaped character or a date-time
+     */
+    static final int MINIMUM_BUFFER_SIZE = 64;
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<ByteBuffer> buffers;
+
+    /**
+     * @param bufferSize size of the buffers, e.g. 16 KB for a socket write
+     * @param maxPooled  maximum number of idle buffers kept
+     */
+    public ByteBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize < MINIMUM_BUFFER_SIZE) {
+            throw new IllegalArgumentException("bufferSize must be at least " + MINIMUM_BUFFER_SIZE + ", got " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return a cleared buffer of {@link #bufferSize()} bytes
+     */
+    public ByteBuffer acquire() {
+        var buffer = buffers.poll();
+        return buffer != null ? buffer.clear() : ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Returns a buffer acquired from this pool
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() == bufferSize && buffer.hasArray()) {
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * @return number of idle buffers
+     */
+    public int size() {
+        return buffers.size();
+    }
+}
@@ -0,0 +1,193 @@
+package io.bokun.octo.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes an OCTO DTO as UTF-8 JSON straight to bytes, without building the intermediate String of
+ * {@code Gson.toJson}. Get the encoder of a record or enum from {@link OctoJsonEncoders#forType(Class)}.
+ * <p>
+ * The output is the same as the default Gson with {@link io.bokun.octo.gson.OctoTypeAdapterFactory} registered:
+ * compact, null fields left out and HTML-safe escaping. Field names and enum constants are encoded once, when the
+ * encoder class is loaded. Large values are written in chunks, either to an {@link OutputStream} or as pooled
+ * {@link ByteBuffer}s handed to a {@link ChunkSink}, so memory stays bounded by the buffer size.
+ * <p>
+ * Encoders are stateless and thread-safe.
+ */
+public abstract class JsonEncoder<T> {
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final int ARRAY_BUFFER_SIZE = 512;
+
+    JsonEncoder() {
+    }
+
+    /**
+     * Receives the chunks of an encoded value, in order
+     */
+    @FunctionalInterface
+    public interface ChunkSink {
+        /**
+         * @param chunk a buffer of the pool, ready to be read (position 0, limit at the end of the bytes written).
+         *              The sink owns it and releases it to the pool once written out.
+         */
+        void accept(ByteBuffer chunk) throws IOException;
+    }
+
+    /**
+     * Writes a non-null value
+     */
+    abstract void write(Utf8JsonOutput out, T value) throws IOException;
+
+    void writeNullable(Utf8JsonOutput out, T value) throws IOException {
+        if (value == null) {
+            out.writeNull();
+        } else {
+            write(out, value);
+        }
+    }
+
+    /**
+     * @return the JSON of the value, {@code null} for null
+     */
+    public byte[] encode(T value) {
+        var out = new ArrayOutput();
+        try {
+            writeNullable(out, value);
+        } catch (IOException e) {
+            // Never thrown, the array grows instead of flushing
+            throw new UncheckedIOException(e);
+        }
+        return Arrays.copyOf(out.bytes, out.position);
+    }
+
+    public void encode(T value, OutputStream stream) throws IOException {
+        var out = new StreamOutput(stream, new byte[STREAM_BUFFER_SIZE]);
+        writeNullable(out, value);
+        out.finish();
+    }
+
+    /**
+     * Writes the value to the stream through a buffer of the pool
+     */
+    public void encode(T value, OutputStream stream, ByteBufferPool pool) throws IOException {
+        var buffer = pool.acquire();
+        try {
+            var out = new StreamOutput(stream, buffer.array());
+            writeNullable(out, value);
+            out.finish();
+        } finally {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * Writes the value into buffers of the pool, each handed to the sink as soon as it's full and the last one once
+     * the value is complete, e.g. to write a large product list to a socket chunk by chunk
+     */
+    public void encode(T value, ByteBufferPool pool, ChunkSink sink) throws IOException {
+        var out = new ChunkOutput(pool, sink);
+        try {
+            writeNullable(out, value);
+            out.finish();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * @return an encoder for lists of the given element encoder, e.g. for an {@code /availability} response
+     */
+    public static <T> JsonEncoder<List<T>> listOf(JsonEncoder<T> elementEncoder) {
+        return new JsonEncoder<>() {
+            @Override
+            void write(Utf8JsonOutput out, List<T> value) throws IOException {
+                out.writeList(value, elementEncoder);
+            }
+        };
+    }
+
+    private static final class ArrayOutput extends Utf8JsonOutput {
+        ArrayOutput() {
+            super(new byte[ARRAY_BUFFER_SIZE], 0);
+        }
+
+        @Override
+        void flush() {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+
+        @Override
+        void finish() {
+        }
+    }
+
+    private static final class StreamOutput extends Utf8JsonOutput {
+        private final OutputStream stream;
+
+        StreamOutput(OutputStream stream, byte[] buffer) {
+            super(buffer, 0);
+            this.stream = stream;
+        }
+
+        @Override
+        void flush() throws IOException {
+            stream.write(bytes, 0, position);
+            position = 0;
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (position > 0) {
+                flush();
+            }
+        }
+    }
+
+    private static final class ChunkOutput extends Utf8JsonOutput {
+        private final ByteBufferPool pool;
+        private final ChunkSink sink;
+        private ByteBuffer chunk;
+
+        ChunkOutput(ByteBufferPool pool, ChunkSink sink) {
+            this(pool, sink, pool.acquire());
+        }
+
+        private ChunkOutput(ByteBufferPool pool, ChunkSink sink, ByteBuffer chunk) {
+            super(chunk.array(), 0);
+            this.pool = pool;
+            this.sink = sink;
+            this.chunk = chunk;
+        }
+
+        @Override
+        void flush() throws IOException {
+            var full = chunk.limit(position).position(0);
+            chunk = null;
+            sink.accept(full);
+            chunk = pool.acquire();
+            bytes = chunk.array();
+            position = 0;
+        }
+
+        @Override
+        void finish() throws IOException {
+            var last = chunk.limit(position).position(0);
+            chunk = null;
+            sink.accept(last);
+        }
+
+        /**
+         * Returns the buffer being written to the pool if the encoding failed
+         */
+        void release() {
+            if (chunk != null) {
+                pool.release(chunk);
+                chunk = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.bokun.octo.json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+/**
+ * Encoders for the scalar element types of lists, e.g. {@code ArrayList<String>}. Record fields of these types are
+ * written inline by the generated encoders instead.
+ */
+final class ScalarEncoders {
+    private ScalarEncoders() {
+    }
+
+    static final JsonEncoder<String> STRING = new JsonEncoder<>() {
+        @Override
+        void write(Utf8JsonOutput out, String value) throws IOException {
+            out.writeString(value);
+        }
+    };
+
+    static final JsonEncoder<Boolean> BOOLEAN = new JsonEncoder<>() {
+        @Override
+        void write(Utf8JsonOutput out, Boolean value) throws IOException {
+            out.writeBoolean(value);
+        }
+    };
+
+    static final JsonEncoder<Integer> INTEGER = new JsonEncoder<>() {
+        @Override
+        void write(Utf8JsonOutput out, Integer value) throws IOException {
+            out.writeInteger(value);
+        }
+    };
+
+    static final JsonEncoder<UUID> UUID = new JsonEncoder<>() {
+        @Override
+        void write(Utf8JsonOutput out, java.util.UUID value) throws IOException {
+            out.writeUuid(value);
+        }
+    };
+
+    static final JsonEncoder<URL> URL = new JsonEncoder<>() {
+        @Override
+        void write(Utf8JsonOutput out, java.net.URL value) throws IOException {
+            out.writeUrl(value);
+        }
+    };
+
+    static final JsonEncoder<URI> URI = new JsonEncoder<>() {
+        @Override
+        void write(Utf8JsonOutput out, java.net.URI value) throws IOException {
+            out.writeUri(value);
+        }
+    };
+
+    static final JsonEncoder<LocalDate> LOCAL_DATE = new JsonEncoder<>() {
+        @Override
+        void write(Utf8JsonOutput out, LocalDate value) throws IOException {
+            out.writeLocalDate(value);
+        }
+    };
+
+    static final JsonEncoder<ZonedDateTime> ZONED_DATE_TIME = new JsonEncoder<>() {
+        @Override
+        void write(Utf8JsonOutput out, ZonedDateTime value) throws IOException {
+            out.writeZonedDateTime(value);
+        }
+    };
+}
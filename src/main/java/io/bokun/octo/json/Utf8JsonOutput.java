@@ -0,0 +1,317 @@
+package io.bokun.octo.json;
+
+import io.bokun.octo.gson.IsoDateTimes;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes compact JSON as UTF-8 into a byte array, handing the array to the subclass's sink whenever it's full.
+ * Produces the same bytes as {@code new Gson().toJson(value).getBytes(UTF_8)}: null fields are left out, and
+ * strings are escaped like Gson's default HTML-safe writer.
+ */
+abstract class Utf8JsonOutput {
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Most bytes a single character takes: a six-character unicode escape
+     */
+    private static final int MAX_CHAR_LENGTH = 6;
+
+    /**
+     * Escape sequences of the ASCII characters, null for the ones written as they are
+     */
+    private static final byte[][] ESCAPES = new byte[128][];
+
+    static {
+        for (int c = 0; c < 0x20; c++) {
+            ESCAPES[c] = unicodeEscape(c);
+        }
+        ESCAPES['"'] = new byte[]{'\\', '"'};
+        ESCAPES['\\'] = new byte[]{'\\', '\\'};
+        ESCAPES['\t'] = new byte[]{'\\', 't'};
+        ESCAPES['\b'] = new byte[]{'\\', 'b'};
+        ESCAPES['\n'] = new byte[]{'\\', 'n'};
+        ESCAPES['\r'] = new byte[]{'\\', 'r'};
+        ESCAPES['\f'] = new byte[]{'\\', 'f'};
+        // HTML-safe, like Gson's default
+        for (char c : new char[]{'<', '>', '&', '=', '\''}) {
+            ESCAPES[c] = unicodeEscape(c);
+        }
+    }
+
+    byte[] bytes;
+    int position;
+
+    /**
+     * True right after a '{' or '[', when the next name or element isn't preceded by a comma
+     */
+    private boolean open = true;
+
+    Utf8JsonOutput(byte[] bytes, int position) {
+        this.bytes = bytes;
+        this.position = position;
+    }
+
+    /**
+     * Hands out the bytes written so far and makes room for at least {@link ByteBufferPool#MINIMUM_BUFFER_SIZE}
+     * more
+     */
+    abstract void flush() throws IOException;
+
+    /**
+     * Hands out the last bytes, the output can't be used afterwards
+     */
+    abstract void finish() throws IOException;
+
+    private static byte[] unicodeEscape(int c) {
+        return new byte[]{'\\', 'u', HEX[c >> 12 & 0xF], HEX[c >> 8 & 0xF], HEX[c >> 4 & 0xF], HEX[c & 0xF]};
+    }
+
+    /**
+     * @return the pre-encoded {@code "name":} of a field
+     */
+    static byte[] name(String name) {
+        return (quote(name) + ":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the pre-encoded {@code "CONSTANT"} of every enum constant, by ordinal
+     */
+    static byte[][] constants(Enum<?>[] values) {
+        var constants = new byte[values.length][];
+        for (var value : values) {
+            constants[value.ordinal()] = quote(value.name()).getBytes(StandardCharsets.UTF_8);
+        }
+        return constants;
+    }
+
+    private static String quote(String value) {
+        var quoted = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            quoted.append(c < 128 && ESCAPES[c] != null ? new String(ESCAPES[c], StandardCharsets.US_ASCII) : String.valueOf(c));
+        }
+        return quoted.append('"').toString();
+    }
+
+    private void require(int length) throws IOException {
+        if (position + length > bytes.length) {
+            flush();
+        }
+    }
+
+    private void writeByte(byte b) throws IOException {
+        if (position == bytes.length) {
+            flush();
+        }
+        bytes[position++] = b;
+    }
+
+    /**
+     * Copies pre-encoded bytes, in pieces if they don't fit in the buffer
+     */
+    void writeRaw(byte[] raw) throws IOException {
+        int offset = 0;
+        while (offset < raw.length) {
+            if (position == bytes.length) {
+                flush();
+            }
+            int length = Math.min(raw.length - offset, bytes.length - position);
+            System.arraycopy(raw, offset, bytes, position, length);
+            position += length;
+            offset += length;
+        }
+    }
+
+    void beginObject() throws IOException {
+        writeByte((byte) '{');
+        open = true;
+    }
+
+    void endObject() throws IOException {
+        writeByte((byte) '}');
+        open = false;
+    }
+
+    void beginArray() throws IOException {
+        writeByte((byte) '[');
+        open = true;
+    }
+
+    void endArray() throws IOException {
+        writeByte((byte) ']');
+        open = false;
+    }
+
+    /**
+     * Writes the pre-encoded name of a field, see {@link #name(String)}
+     */
+    void name(byte[] name) throws IOException {
+        if (!open) {
+            writeByte((byte) ',');
+        }
+        open = false;
+        writeRaw(name);
+    }
+
+    /**
+     * Starts an array element
+     */
+    void element() throws IOException {
+        if (!open) {
+            writeByte((byte) ',');
+        }
+        open = false;
+    }
+
+    void writeNull() throws IOException {
+        writeRaw(NULL);
+    }
+
+    void writeBoolean(Boolean value) throws IOException {
+        writeRaw(value ? TRUE : FALSE);
+    }
+
+    void writeInteger(Integer value) throws IOException {
+        int i = value;
+        if (i == Integer.MIN_VALUE) {
+            writeRaw(Integer.toString(i).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        require(11);
+        if (i < 0) {
+            bytes[position++] = '-';
+            i = -i;
+        }
+        int digits = 1;
+        for (int rest = i / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        for (int pos = position + digits - 1; pos >= position; pos--) {
+            bytes[pos] = (byte) ('0' + i % 10);
+            i /= 10;
+        }
+        position += digits;
+    }
+
+    void writeString(String value) throws IOException {
+        require(1);
+        bytes[position++] = '"';
+        for (int i = 0, length = value.length(); i < length; i++) {
+            if (position > bytes.length - MAX_CHAR_LENGTH) {
+                flush();
+            }
+            char c = value.charAt(i);
+            if (c < 128) {
+                var escape = ESCAPES[c];
+                if (escape == null) {
+                    bytes[position++] = (byte) c;
+                } else {
+                    System.arraycopy(escape, 0, bytes, position, escape.length);
+                    position += escape.length;
+                }
+            } else if (c < 0x800) {
+                bytes[position++] = (byte) (0xC0 | c >> 6);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            } else if (c == 0x2028 || c == 0x2029) {
+                // Line and paragraph separators, escaped by Gson as they end lines in JavaScript
+                position = writeUnicodeEscape(c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                bytes[position++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, replaced like String.getBytes does
+                bytes[position++] = '?';
+            } else {
+                bytes[position++] = (byte) (0xE0 | c >> 12);
+                bytes[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        writeByte((byte) '"');
+    }
+
+    private int writeUnicodeEscape(char c) {
+        var escape = unicodeEscape(c);
+        System.arraycopy(escape, 0, bytes, position, escape.length);
+        return position + escape.length;
+    }
+
+    void writeUuid(UUID value) throws IOException {
+        require(38);
+        bytes[position++] = '"';
+        long most = value.getMostSignificantBits();
+        long least = value.getLeastSignificantBits();
+        writeHex(most >>> 32, 8);
+        bytes[position++] = '-';
+        writeHex(most >>> 16, 4);
+        bytes[position++] = '-';
+        writeHex(most, 4);
+        bytes[position++] = '-';
+        writeHex(least >>> 48, 4);
+        bytes[position++] = '-';
+        writeHex(least, 12);
+        bytes[position++] = '"';
+    }
+
+    private void writeHex(long value, int digits) {
+        for (int pos = position + digits - 1; pos >= position; pos--) {
+            bytes[pos] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        position += digits;
+    }
+
+    void writeUrl(URL value) throws IOException {
+        writeString(value.toExternalForm());
+    }
+
+    void writeUri(URI value) throws IOException {
+        writeString(value.toASCIIString());
+    }
+
+    void writeLocalDate(LocalDate value) throws IOException {
+        require(IsoDateTimes.LOCAL_DATE_LENGTH + 2);
+        int end = IsoDateTimes.formatLocalDate(value, bytes, position + 1);
+        if (end < 0) {
+            writeString(IsoDateTimes.formatLocalDate(value));
+            return;
+        }
+        bytes[position] = '"';
+        bytes[end] = '"';
+        position = end + 1;
+    }
+
+    void writeZonedDateTime(ZonedDateTime value) throws IOException {
+        require(IsoDateTimes.MAX_DATE_TIME_LENGTH + 2);
+        int end = IsoDateTimes.formatZonedDateTime(value, bytes, position + 1);
+        if (end < 0) {
+            writeString(IsoDateTimes.formatZonedDateTime(value));
+            return;
+        }
+        bytes[position] = '"';
+        bytes[end] = '"';
+        position = end + 1;
+    }
+
+    <T> void writeList(List<T> list, JsonEncoder<T> elementEncoder) throws IOException {
+        beginArray();
+        for (int i = 0, size = list.size(); i < size; i++) {
+            element();
+            elementEncoder.writeNullable(this, list.get(i));
+        }
+        endArray();
+    }
+}
@@ -0,0 +1,69 @@
+package io.bokun.octo.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+
+/**
+ * Serves an {@link OctoDispatcher} with the JDK's built-in HTTP server, e.g. on virtual threads (Java 21+):
+ * <pre>{@code
+ * var server = HttpServer.create(new InetSocketAddress(8080), 0);
+ * server.createContext("/v1", new OctoHttpHandler(new OctoDispatcher(service)));
+ * server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+ * server.start();
+ * }</pre>
+ * Paths are routed relative to the context path. Exceptions other than {@link OctoServiceException} are logged and
+ * answered with a 500 {@code INTERNAL_SERVER_ERROR}, without their details.
+ */
+public final class OctoHttpHandler implements HttpHandler {
+    private static final System.Logger LOGGER = System.getLogger(OctoHttpHandler.class.getName());
+
+    private final OctoDispatcher dispatcher;
+
+    public OctoHttpHandler(OctoDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            var body = exchange.getRequestBody().readAllBytes();
+            var target = target(exchange);
+            OctoResponse response;
+            try {
+                response = dispatcher.dispatch(exchange.getRequestMethod(), target, body);
+            } catch (RuntimeException e) {
+                LOGGER.log(System.Logger.Level.ERROR, exchange.getRequestMethod() + " " + target + " failed", e);
+                response = dispatcher.error(new OctoServiceException(500, "INTERNAL_SERVER_ERROR", "Internal server error"));
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", OctoResponse.CONTENT_TYPE);
+            exchange.sendResponseHeaders(response.statusCode(), response.body().length);
+            try (var out = exchange.getResponseBody()) {
+                out.write(response.body());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * The raw path and query of the request, relative to the context path
+     */
+    private static String target(HttpExchange exchange) {
+        var uri = exchange.getRequestURI();
+        var path = uri.getRawPath();
+        var context = exchange.getHttpContext().getPath();
+        if (context.endsWith("/")) {
+            context = context.substring(0, context.length() - 1);
+        }
+        if (path.startsWith(context)) {
+            path = path.substring(context.length());
+        }
+        if (path.isEmpty()) {
+            path = "/";
+        }
+        return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+    }
+}
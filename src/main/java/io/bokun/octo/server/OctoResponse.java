@@ -0,0 +1,11 @@
+package io.bokun.octo.server;
+
+/**
+ * Response of the {@link OctoDispatcher}, for the transport to send as is
+ *
+ * @param statusCode HTTP status, 200 or the status of an OCTO error
+ * @param body       the UTF-8 JSON body, always {@code application/json}
+ */
+public record OctoResponse(int statusCode, byte[] body) {
+    public static final String CONTENT_TYPE = "application/json; charset=utf-8";
+}
@@ -0,0 +1,59 @@
+package io.bokun.octo.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thrown by an {@link OctoService} implementation to answer with an OCTO error, e.g.
+ * {@code throw new OctoServiceException(400, "INVALID_PRODUCT_ID", "The productId was missing or invalid")
+ * .withDetail("productId", productId)}. The dispatcher writes it as
+ * {@code {"error": ..., "errorMessage": ..., <details>}} with the given HTTP status.
+ */
+public class OctoServiceException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final String error;
+    private final Map<String, String> details = new LinkedHashMap<>();
+
+    public OctoServiceException(int statusCode, String error, String errorMessage) {
+        super(errorMessage);
+        this.statusCode = statusCode;
+        this.error = error;
+    }
+
+    /**
+     * Error of an operation the service doesn't implement
+     */
+    static OctoServiceException notImplemented(String operation) {
+        return new OctoServiceException(501, "NOT_IMPLEMENTED", operation + " is not supported");
+    }
+
+    static OctoServiceException badRequest(String errorMessage) {
+        return new OctoServiceException(400, "BAD_REQUEST", errorMessage);
+    }
+
+    /**
+     * Adds a field to the error body, e.g. the invalid {@code productId}
+     */
+    public OctoServiceException withDetail(String name, String value) {
+        details.put(name, value);
+        return this;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getErrorMessage() {
+        return getMessage();
+    }
+
+    public Map<String, String> getDetails() {
+        return details;
+    }
+}
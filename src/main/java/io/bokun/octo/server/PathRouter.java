@@ -0,0 +1,121 @@
+package io.bokun.octo.server;
+
+import java.util.Arrays;
+
+/**
+ * Trie of route patterns such as {@code /bookings/{uuid}/confirm}, one node per path segment. Matching walks the
+ * segments of the request target in place and allocates nothing. The {@code {parameter}} segments are at fixed
+ * segment indexes of the route, so they are read back from the target by index, see
+ * {@link Requests#pathParameter(String, int, int)}.
+ * <p>
+ * Literal segments take precedence over parameters, without backtracking. Routes are added once at class
+ * initialization and only read afterwards, so matching is thread-safe.
+ */
+final class PathRouter {
+    static final int NOT_FOUND = -1;
+    static final int METHOD_NOT_ALLOWED = -2;
+
+    private static final class Node {
+        String[] literals = new String[0];
+        Node[] children = new Node[0];
+        Node parameter;
+        String[] methods = new String[0];
+        int[] routes = new int[0];
+
+        Node literal(String target, int start, int end) {
+            int length = end - start;
+            for (int i = 0; i < literals.length; i++) {
+                var literal = literals[i];
+                if (literal.length() == length && target.regionMatches(start, literal, 0, length)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * @param pattern e.g. {@code /products/{id}}
+     * @param route   the id returned by {@link #match} for the pattern and method, 0 or more
+     */
+    void add(String method, String pattern, int route) {
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route patterns start with /, got " + pattern);
+        }
+        var node = root;
+        for (var segment : pattern.substring(1).split("/")) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                if (node.parameter == null) {
+                    node.parameter = new Node();
+                }
+                node = node.parameter;
+            } else if (!segment.isEmpty()) {
+                var child = node.literal(segment, 0, segment.length());
+                if (child == null) {
+                    child = new Node();
+                    node.literals = append(node.literals, segment);
+                    node.children = append(node.children, child);
+                }
+                node = child;
+            }
+        }
+        if (Arrays.asList(node.methods).contains(method)) {
+            throw new IllegalArgumentException("Duplicate route " + method + " " + pattern);
+        }
+        node.methods = append(node.methods, method);
+        node.routes = Arrays.copyOf(node.routes, node.routes.length + 1);
+        node.routes[node.routes.length - 1] = route;
+    }
+
+    private static <T> T[] append(T[] array, T value) {
+        var appended = Arrays.copyOf(array, array.length + 1);
+        appended[array.length] = value;
+        return appended;
+    }
+
+    /**
+     * Matches the path of a request target, e.g. {@code /bookings/abc/confirm?x=y} with end at the '?'. A single
+     * trailing slash is ignored.
+     *
+     * @return the route, {@link #NOT_FOUND} or {@link #METHOD_NOT_ALLOWED} if the path matches for other methods
+     */
+    int match(String method, String target, int end) {
+        if (end == 0 || target.charAt(0) != '/') {
+            return NOT_FOUND;
+        }
+        var node = root;
+        int position = 0;
+        while (position < end) {
+            int start = position + 1;
+            int next = start;
+            while (next < end && target.charAt(next) != '/') {
+                next++;
+            }
+            if (start == next) {
+                if (next == end) {
+                    break;
+                }
+                return NOT_FOUND;
+            }
+            var child = node.literal(target, start, next);
+            if (child == null) {
+                child = node.parameter;
+                if (child == null) {
+                    return NOT_FOUND;
+                }
+            }
+            node = child;
+            position = next;
+        }
+
+        var methods = node.methods;
+        for (int i = 0; i < methods.length; i++) {
+            if (methods[i].equals(method)) {
+                return node.routes[i];
+            }
+        }
+        return methods.length == 0 ? NOT_FOUND : METHOD_NOT_ALLOWED;
+    }
+}
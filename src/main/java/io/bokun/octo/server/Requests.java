@@ -0,0 +1,142 @@
+package io.bokun.octo.server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import io.bokun.octo.gson.UnknownEnumValues;
+import io.bokun.octo.json.JsonEncoder;
+import io.bokun.octo.validation.OctoValidators;
+import io.bokun.octo.validation.Violation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.stream.Collectors;
+
+/**
+ * Request & response binding shared by the generated {@link OctoDispatcher}
+ */
+final class Requests {
+    private Requests() {
+    }
+
+    /**
+     * @param pathEnd index of the end of the path in the target, i.e. of the '?' if there's a query
+     * @param segment index of the parameter segment in the path the router matched, e.g. 1 for {@code /bookings/{uuid}}
+     * @return the decoded path parameter, e.g. the booking UUID
+     */
+    static String pathParameter(String target, int pathEnd, int segment) {
+        int start = 1;
+        for (int i = 0; i < segment; i++) {
+            start = target.indexOf('/', start) + 1;
+        }
+        int end = target.indexOf('/', start);
+        if (end < 0 || end > pathEnd) {
+            end = pathEnd;
+        }
+        for (int i = start; i < end; i++) {
+            if (target.charAt(i) == '%') {
+                // '+' is a literal in paths, unlike in queries
+                return decode(target.substring(start, end).replace("+", "%2B"));
+            }
+        }
+        return target.substring(start, end);
+    }
+
+    /**
+     * @param queryStart index of the '?' in the target, -1 if there's no query
+     * @return the decoded value of the first query parameter with the name, null if it's missing
+     */
+    static String queryParameter(String target, int queryStart, String name) {
+        if (queryStart < 0) {
+            return null;
+        }
+        int position = queryStart + 1;
+        while (position < target.length()) {
+            int end = target.indexOf('&', position);
+            if (end < 0) {
+                end = target.length();
+            }
+            int nameEnd = position + name.length();
+            if (nameEnd <= end && target.regionMatches(position, name, 0, name.length())) {
+                if (nameEnd == end) {
+                    return "";
+                }
+                if (target.charAt(nameEnd) == '=') {
+                    return decode(target.substring(nameEnd + 1, end));
+                }
+            }
+            position = end + 1;
+        }
+        return null;
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw OctoServiceException.badRequest("Malformed percent-encoding in " + value);
+        }
+    }
+
+    /**
+     * Binds the JSON request body to the requestBody record and checks it against the spec
+     *
+     * @param required whether the spec marks the body required
+     * @return the body, null if it's missing (or JSON null) and not required
+     * @throws OctoServiceException with status 400 if the body is malformed, invalid, or missing and required
+     */
+    static <T> T body(Gson gson, byte[] body, Class<T> type, boolean required) {
+        if (body == null || body.length == 0) {
+            return missingBody(required);
+        }
+        T value;
+        var unknownEnumValues = UnknownEnumValues.record();
+        try (unknownEnumValues; var reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+            value = gson.fromJson(reader, type);
+        } catch (JsonParseException | DateTimeException | IllegalArgumentException | IllegalStateException e) {
+            throw OctoServiceException.badRequest("Malformed request body: " + e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (value == null) {
+            return missingBody(required);
+        }
+        var violations = OctoValidators.validate(value, unknownEnumValues);
+        if (!violations.isEmpty()) {
+            throw OctoServiceException.badRequest(violations.stream().map(Violation::toString).collect(Collectors.joining(", ")));
+        }
+        return value;
+    }
+
+    private static <T> T missingBody(boolean required) {
+        if (required) {
+            throw OctoServiceException.badRequest("The request body is required");
+        }
+        return null;
+    }
+
+    /**
+     * @param encoder writes the response straight to UTF-8, null to go through the Gson
+     */
+    @SuppressWarnings("unchecked")
+    static OctoResponse ok(Gson gson, JsonEncoder<?> encoder, Object value, Type type) {
+        if (encoder != null) {
+            return new OctoResponse(200, ((JsonEncoder<Object>) encoder).encode(value));
+        }
+        return new OctoResponse(200, gson.toJson(value, type).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static OctoResponse error(Gson gson, OctoServiceException exception) {
+        var body = new JsonObject();
+        body.addProperty("error", exception.getError());
+        body.addProperty("errorMessage", exception.getErrorMessage());
+        exception.getDetails().forEach(body::addProperty);
+        return new OctoResponse(exception.getStatusCode(), gson.toJson(body).getBytes(StandardCharsets.UTF_8));
+    }
+}
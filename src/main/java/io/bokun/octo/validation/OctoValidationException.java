@@ -0,0 +1,21 @@
+package io.bokun.octo.validation;
+
+import java.util.List;
+
+/**
+ * Thrown by {@link OctoValidators#requireValid(Object)}, holds all violations of the DTO
+ */
+public class OctoValidationException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Violation> violations;
+
+    public OctoValidationException(List<Violation> violations) {
+        super("Invalid OCTO payload: " + violations);
+        this.violations = List.copyOf(violations);
+    }
+
+    public List<Violation> violations() {
+        return violations;
+    }
+}
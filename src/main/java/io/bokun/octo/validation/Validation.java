@@ -0,0 +1,81 @@
+package io.bokun.octo.validation;
+
+import io.bokun.octo.gson.UnknownEnumValues;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Helpers shared by the generated validators. Validation runs in two passes: a check-only pass that allocates
+ * nothing, and only if it fails a second pass collecting every violation with its path.
+ */
+final class Validation {
+    private Validation() {
+    }
+
+    /**
+     * Collects the violations of a value, the path of the value is passed in so it's only built on failure
+     */
+    @FunctionalInterface
+    interface Collector<T> {
+        void collect(T value, String path, List<Violation> violations);
+    }
+
+    static <T> List<Violation> validate(T value, Predicate<T> isValid, Collector<T> collector) {
+        if (isValid.test(value)) {
+            return List.of();
+        }
+        var violations = new ArrayList<Violation>();
+        collector.collect(value, "$", violations);
+        return violations;
+    }
+
+    /**
+     * Adds a violation per unknown enum value, replacing the "is required" violation of the value it was read as
+     */
+    static List<Violation> withUnknownEnumValues(List<Violation> violations, List<UnknownEnumValues.Value> unknownEnumValues) {
+        if (unknownEnumValues.isEmpty()) {
+            return violations;
+        }
+        var paths = new HashSet<String>();
+        var merged = new ArrayList<Violation>();
+        for (var unknown : unknownEnumValues) {
+            paths.add(unknown.path());
+            merged.add(new Violation(unknown.path(), "is not a known value: " + unknown.value()));
+        }
+        for (var violation : violations) {
+            if (!paths.contains(violation.path())) {
+                merged.add(violation);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @param elementValid checks a non-null element, null if the elements are scalars without constraints
+     */
+    static <T> boolean isValidList(List<T> list, boolean nullableElements, Predicate<T> elementValid) {
+        for (int i = 0, size = list.size(); i < size; i++) {
+            var element = list.get(i);
+            if (element == null ? !nullableElements : elementValid != null && !elementValid.test(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static <T> void collectList(List<T> list, boolean nullableElements, Collector<T> elementCollector, String path, List<Violation> violations) {
+        for (int i = 0, size = list.size(); i < size; i++) {
+            var element = list.get(i);
+            if (element == null) {
+                if (!nullableElements) {
+                    violations.add(new Violation(path + "[" + i + "]", "must not be null"));
+                }
+            } else if (elementCollector != null) {
+                elementCollector.collect(element, path + "[" + i + "]", violations);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package io.bokun.octo.validation;
+
+/**
+ * A constraint of the spec a DTO doesn't meet
+ *
+ * @param path    JSON path of the offending value, e.g. {@code $.unitItems[2].unitId}
+ * @param message what's wrong with it, e.g. {@code is required}
+ */
+public record Violation(String path, String message) {
+    @Override
+    public String toString() {
+        return path + " " + message;
+    }
+}
@@ -0,0 +1,195 @@
+package io.bokun.octo.availability;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import io.bokun.octo.Availability;
+import io.bokun.octo.AvailabilityCalendar;
+import io.bokun.octo.AvailabilityStatus;
+import io.bokun.octo.gson.OctoTypeAdapterFactory;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AvailabilityDeltaTrackerTest {
+    private static final ZonedDateTime DAY = ZonedDateTime.of(2024, 5, 1, 0, 0, 0, 0, ZoneOffset.ofHours(2));
+    private static final String OPTION = "product/DEFAULT";
+
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory()).create();
+    private final AvailabilityDeltaTracker<Availability> tracker = AvailabilityDeltaTracker.forAvailability();
+    private final AtomicInteger decoded = new AtomicInteger();
+
+    private final Function<byte[], List<Availability>> decoder = (body) -> {
+        decoded.incrementAndGet();
+        return gson.fromJson(new String(body, StandardCharsets.UTF_8), new TypeToken<List<Availability>>() {
+        }.getType());
+    };
+
+    private static Availability slot(String id, AvailabilityStatus status, Integer vacancies, Integer capacity) {
+        int hour = Integer.parseInt(id);
+        return new Availability(id, DAY.plusHours(hour), DAY.plusHours(hour + 1), false, status != AvailabilityStatus.SOLD_OUT,
+                status, vacancies, capacity, null, DAY.plusHours(hour - 1).withZoneSameInstant(ZoneOffset.UTC), new ArrayList<>());
+    }
+
+    private static Availability slot(String id, int vacancies) {
+        return slot(id, AvailabilityStatus.AVAILABLE, vacancies, 10);
+    }
+
+    private byte[] body(Availability... slots) {
+        return gson.toJson(List.of(slots)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The changes as "+key", "-key" or "~key" with the flags of a change, e.g. "~09 status vacancies"
+     */
+    private static List<String> describe(AvailabilityDelta<?> delta) {
+        return delta.changes().stream().map((change) -> change.isAdded() ? "+" + change.key()
+                : change.isRemoved() ? "-" + change.key()
+                : "~" + change.key() + (change.statusChanged() ? " status" : "") + (change.vacanciesChanged() ? " vacancies" : "")).toList();
+    }
+
+    @Test
+    public void addsAllSlotsOnTheFirstPoll() {
+        var delta = tracker.update(OPTION, List.of(slot("09", 5), slot("10", 5)));
+
+        assertEquals(OPTION, delta.optionKey());
+        assertEquals(List.of("+09", "+10"), describe(delta));
+        assertEquals(2, delta.added().size());
+        assertEquals(1, tracker.size());
+    }
+
+    @Test
+    public void reportsNothingForAnUnchangedPoll() {
+        tracker.update(OPTION, List.of(slot("09", 5), slot("10", 5)));
+        // Equal records, not the same instances
+        assertTrue(tracker.update(OPTION, List.of(slot("09", 5), slot("10", 5))).isEmpty());
+    }
+
+    @Test
+    public void flagsStatusAndVacancyChangesInTheSameOrder() {
+        tracker.update(OPTION, List.of(slot("09", 5), slot("10", 5), slot("11", 5)));
+        var delta = tracker.update(OPTION, List.of(
+                slot("09", AvailabilityStatus.SOLD_OUT, 0, 10),
+                slot("10", 4),
+                slot("11", AvailabilityStatus.AVAILABLE, 5, 20)
+        ));
+
+        assertEquals(List.of("~09 status vacancies", "~10 vacancies", "~11"), describe(delta));
+        assertEquals(1, delta.statusChanges().size());
+        assertEquals(2, delta.vacancyChanges().size());
+        assertEquals(slot("10", 5), delta.changes().get(1).previous());
+        assertEquals(slot("10", 4), delta.changes().get(1).current());
+    }
+
+    @Test
+    public void matchesTheRemainderByKeyOnceThePollsDiverge() {
+        tracker.update(OPTION, List.of(slot("09", 5), slot("10", 5), slot("11", 5), slot("12", 5), slot("13", 5)));
+        // Same order up to 10, then 11 is gone, 14 is new and 12 and 13 swapped with 13 changed
+        var delta = tracker.update(OPTION, List.of(slot("09", 5), slot("10", 4), slot("14", 5), slot("13", 3), slot("12", 5)));
+
+        assertEquals(List.of("~10 vacancies", "+14", "~13 vacancies", "-11"), describe(delta));
+        assertEquals(1, delta.removed().size());
+        assertEquals(slot("11", 5), delta.removed().get(0).previous());
+    }
+
+    @Test
+    public void handlesShorterAndLongerPolls() {
+        tracker.update(OPTION, List.of(slot("09", 5), slot("10", 5), slot("11", 5)));
+        assertEquals(List.of("-11"), describe(tracker.update(OPTION, List.of(slot("09", 5), slot("10", 5)))));
+        assertEquals(List.of("+11", "+12"), describe(tracker.update(OPTION, List.of(slot("09", 5), slot("10", 5), slot("11", 5), slot("12", 5)))));
+        assertEquals(List.of("-09", "-10", "-11", "-12"), describe(tracker.update(OPTION, List.of())));
+    }
+
+    @Test
+    public void matchesDuplicateKeysInOrder() {
+        tracker.update(OPTION, List.of(slot("09", 5), slot("10", 1), slot("10", 2), slot("10", 3)));
+
+        // Diverging at the first 10: each current 10 is matched with the next previous one, the last one is removed
+        var delta = tracker.update(OPTION, List.of(slot("09", 5), slot("12", 5), slot("10", 1), slot("10", 4)));
+        assertEquals(List.of("+12", "~10 vacancies", "-10"), describe(delta));
+        assertEquals(slot("10", 2), delta.changes().get(1).previous());
+        assertEquals(slot("10", 3), delta.changes().get(2).previous());
+
+        // More duplicates than before: the extra one is added
+        delta = tracker.update(OPTION, List.of(slot("12", 5), slot("10", 1), slot("10", 4), slot("10", 6)));
+        assertEquals(List.of("+10", "-09"), describe(delta));
+        assertEquals(slot("10", 6), delta.changes().get(0).current());
+    }
+
+    @Test
+    public void keysCalendarDaysByDate() {
+        var tracker = AvailabilityDeltaTracker.forCalendar();
+        List<AvailabilityCalendar> days = gson.fromJson("""
+                [{"localDate": "2024-05-01", "available": true, "status": "AVAILABLE", "vacancies": 5, "capacity": 10, "openingHours": []},
+                 {"localDate": "2024-05-02", "available": true, "status": "AVAILABLE", "vacancies": 5, "capacity": 10, "openingHours": []}]
+                """, new TypeToken<List<AvailabilityCalendar>>() {
+        }.getType());
+        tracker.update(OPTION, days);
+
+        assertEquals(List.of("-2024-05-01"), describe(tracker.update(OPTION, List.of(days.get(1)))));
+    }
+
+    @Test
+    public void skipsDecodingUnchangedBodies() {
+        var body = body(slot("09", 5), slot("10", 5));
+
+        assertEquals(List.of("+09", "+10"), describe(tracker.update(OPTION, body, decoder)));
+        assertTrue(tracker.update(OPTION, body.clone(), decoder).isEmpty());
+        assertEquals(1, decoded.get());
+
+        // A changed body is decoded and compared as usual
+        assertEquals(List.of("~10 vacancies"), describe(tracker.update(OPTION, body(slot("09", 5), slot("10", 4)), decoder)));
+        assertEquals(2, decoded.get());
+        assertTrue(tracker.update(OPTION, List.of(slot("09", 5), slot("10", 4))).isEmpty());
+        // A poll without fingerprint clears it, the same body is decoded again
+        assertTrue(tracker.update(OPTION, body(slot("09", 5), slot("10", 4)), decoder).isEmpty());
+        assertEquals(3, decoded.get());
+    }
+
+    @Test
+    public void rechecksTheFingerprintUnderTheLock() {
+        var body = body(slot("09", 5));
+        // Another poll of the same body is applied while this one is decoding
+        var delta = tracker.update(OPTION, body, (bytes) -> {
+            assertEquals(List.of("+09"), describe(tracker.update(OPTION, bytes, decoder)));
+            return decoder.apply(bytes);
+        });
+
+        assertTrue(delta.isEmpty());
+        assertEquals(2, decoded.get());
+    }
+
+    @Test
+    public void reportsAllSlotsAfterForget() {
+        var body = body(slot("09", 5));
+        tracker.update(OPTION, body, decoder);
+        tracker.forget(OPTION);
+        assertEquals(0, tracker.size());
+        assertEquals(List.of("+09"), describe(tracker.update(OPTION, body, decoder)));
+    }
+
+    @Test
+    public void fingerprintsEveryByte() {
+        var body = new byte[21];
+        long fingerprint = AvailabilityDeltaTracker.fingerprint(body);
+        assertEquals(fingerprint, AvailabilityDeltaTracker.fingerprint(body.clone()));
+        for (int i = 0; i < body.length; i++) {
+            var changed = body.clone();
+            changed[i] = 1;
+            assertNotEquals(fingerprint, AvailabilityDeltaTracker.fingerprint(changed));
+        }
+        assertNotEquals(fingerprint, AvailabilityDeltaTracker.fingerprint(new byte[20]));
+        assertFalse(AvailabilityDeltaTracker.fingerprint(new byte[0]) == 0);
+    }
+}
@@ -0,0 +1,202 @@
+package io.bokun.octo.availability;
+
+import io.bokun.octo.Availability;
+import io.bokun.octo.AvailabilityStatus;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AvailabilityIndexTest {
+    private static final ZonedDateTime DAY = ZonedDateTime.of(2024, 5, 1, 0, 0, 0, 0, ZoneOffset.ofHours(2));
+    private static final String OPTION = "product/DEFAULT";
+
+    private final AvailabilityIndex index = new AvailabilityIndex();
+
+    private static Availability slot(String id, int startHour, int endHour, AvailabilityStatus status, Integer vacancies, int cutoffHour) {
+        return new Availability(id, DAY.plusHours(startHour), DAY.plusHours(endHour), false, status != AvailabilityStatus.SOLD_OUT,
+                status, vacancies, vacancies, null, DAY.plusHours(cutoffHour).withZoneSameInstant(ZoneOffset.UTC), new ArrayList<>());
+    }
+
+    private static Instant hour(int hour) {
+        return DAY.plusHours(hour).toInstant();
+    }
+
+    private List<String> ids(AvailabilityQuery query) {
+        return index.find(OPTION, query).stream().map(Availability::id).toList();
+    }
+
+    private void putDay() {
+        index.put(OPTION, List.of(
+                slot("14", 14, 16, AvailabilityStatus.LIMITED, 2, 13),
+                slot("09", 9, 11, AvailabilityStatus.AVAILABLE, 10, 8),
+                slot("all-day", 0, 24, AvailabilityStatus.FREESALE, null, 23),
+                slot("11", 11, 13, AvailabilityStatus.SOLD_OUT, 0, 10),
+                slot("16", 16, 18, AvailabilityStatus.CLOSED, 0, 15)
+        ));
+    }
+
+    @Test
+    public void sortsTheSlotsByStart() {
+        putDay();
+        assertEquals(List.of("all-day", "09", "11", "14", "16"), index.slots(OPTION).stream().map(Availability::id).toList());
+        assertEquals(List.of(), index.slots("other"));
+        assertEquals(List.of(), index.find("other", AvailabilityQuery.all()));
+    }
+
+    @Test
+    public void findsTheSlotsStartingInTheRange() {
+        putDay();
+        assertEquals(List.of("09", "11"), ids(AvailabilityQuery.startingBetween(hour(9), hour(14))));
+        assertEquals(List.of("14"), ids(AvailabilityQuery.startingBetween(hour(12), hour(15))));
+        assertEquals(List.of(), ids(AvailabilityQuery.startingBetween(hour(17), hour(24))));
+    }
+
+    @Test
+    public void findsTheSlotsOverlappingTheRange() {
+        putDay();
+        assertEquals(List.of("all-day", "11", "14"), ids(AvailabilityQuery.overlapping(hour(12), hour(15))));
+        // Touching the range isn't overlapping it
+        assertEquals(List.of("all-day", "14"), ids(AvailabilityQuery.overlapping(hour(13), hour(16))));
+    }
+
+    @Test
+    public void filtersOnStatus() {
+        putDay();
+        assertEquals(List.of("all-day", "09", "14"), ids(AvailabilityQuery.all()
+                .statuses(AvailabilityStatus.AVAILABLE, AvailabilityStatus.LIMITED, AvailabilityStatus.FREESALE)));
+        assertEquals(List.of("11", "16"), ids(AvailabilityQuery.all().statuses(AvailabilityStatus.SOLD_OUT, AvailabilityStatus.CLOSED)));
+        assertEquals(List.of(), ids(AvailabilityQuery.all().statuses()));
+    }
+
+    @Test
+    public void filtersOnCutoff() {
+        putDay();
+        assertEquals(List.of("all-day", "14", "16"), ids(AvailabilityQuery.all().cutoffAfter(hour(10))));
+        assertEquals(List.of(), ids(AvailabilityQuery.all().cutoffAfter(hour(23))));
+    }
+
+    @Test
+    public void filtersOnVacancies() {
+        putDay();
+        // Slots without vacancies have no limit
+        assertEquals(List.of("all-day", "09", "14"), ids(AvailabilityQuery.all().minVacancies(2)));
+        assertEquals(List.of("all-day"), ids(AvailabilityQuery.all().minVacancies(11)));
+    }
+
+    @Test
+    public void combinesTheCriteria() {
+        putDay();
+        var bookable = AvailabilityQuery.startingBetween(hour(9), hour(24))
+                .statuses(AvailabilityStatus.AVAILABLE, AvailabilityStatus.LIMITED)
+                .cutoffAfter(hour(9))
+                .minVacancies(2);
+        assertEquals(List.of("14"), ids(bookable));
+        assertEquals("14", index.first(OPTION, bookable).id());
+        assertNull(index.first(OPTION, bookable.minVacancies(3)));
+    }
+
+    @Test
+    public void findsAntiCorrelatedCriteriaByScanning() {
+        var slots = new ArrayList<Availability>();
+        for (int i = 0; i < 64; i++) {
+            slots.add(i % 2 == 0
+                    ? slot("s" + i, i, i + 1, AvailabilityStatus.AVAILABLE, 0, 100)
+                    : slot("s" + i, i, i + 1, AvailabilityStatus.AVAILABLE, 10, -1));
+        }
+        index.put(OPTION, slots);
+        assertEquals(List.of(), ids(AvailabilityQuery.all().cutoffAfter(hour(0)).minVacancies(5)));
+        assertEquals(32, ids(AvailabilityQuery.all().minVacancies(5)).size());
+    }
+
+    @Test
+    public void stopsAtTheLimit() {
+        putDay();
+        assertEquals(List.of("all-day", "09"), index.find(OPTION, AvailabilityQuery.all(), 2).stream().map(Availability::id).toList());
+        assertEquals(List.of(), index.find(OPTION, AvailabilityQuery.all(), 0));
+    }
+
+    @Test
+    public void matchesALinearScan() {
+        var random = new Random(42);
+        var statuses = AvailabilityStatus.values();
+        var slots = new ArrayList<Availability>();
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(24 * 30);
+            slots.add(slot("s" + i, start, start + 1 + random.nextInt(48), statuses[random.nextInt(statuses.length)],
+                    random.nextInt(10) == 0 ? null : random.nextInt(20), start - random.nextInt(48)));
+        }
+        index.put(OPTION, slots);
+        var sorted = index.slots(OPTION);
+
+        for (int i = 0; i < 500; i++) {
+            int from = random.nextInt(24 * 30);
+            int to = from + random.nextInt(24 * 7);
+            boolean overlapping = random.nextBoolean();
+            var query = overlapping ? AvailabilityQuery.overlapping(hour(from), hour(to)) : AvailabilityQuery.startingBetween(hour(from), hour(to));
+            var status = statuses[random.nextInt(statuses.length)];
+            int cutoff = from + random.nextInt(48) - 24;
+            int vacancies = random.nextInt(20);
+            query = query.statuses(status, AvailabilityStatus.AVAILABLE).cutoffAfter(hour(cutoff)).minVacancies(vacancies);
+
+            var expected = new ArrayList<String>();
+            for (var slot : sorted) {
+                var start = slot.localDateTimeStart().toInstant();
+                var end = slot.localDateTimeEnd().toInstant();
+                boolean inRange = overlapping
+                        ? start.isBefore(hour(to)) && end.isAfter(hour(from))
+                        : !start.isBefore(hour(from)) && start.isBefore(hour(to));
+                if (inRange
+                        && (slot.status() == status || slot.status() == AvailabilityStatus.AVAILABLE)
+                        && slot.utcCutoffAt().toInstant().isAfter(hour(cutoff))
+                        && (slot.vacancies() == null || slot.vacancies() >= vacancies)) {
+                    expected.add(slot.id());
+                }
+            }
+            assertEquals(expected, ids(query));
+        }
+    }
+
+    @Test
+    public void replacesTheSlotsOfARange() {
+        putDay();
+        index.replace(OPTION, hour(9), hour(14), List.of(
+                slot("12", 12, 13, AvailabilityStatus.AVAILABLE, 5, 11),
+                slot("10", 10, 11, AvailabilityStatus.AVAILABLE, 5, 9)
+        ));
+        assertEquals(List.of("all-day", "10", "12", "14", "16"), index.slots(OPTION).stream().map(Availability::id).toList());
+
+        // A new slot with the id of a slot outside the range replaces it
+        index.replace(OPTION, hour(20), hour(24), List.of(slot("16", 20, 22, AvailabilityStatus.AVAILABLE, 1, 19)));
+        assertEquals(List.of("all-day", "10", "12", "14", "16"), index.slots(OPTION).stream().map(Availability::id).toList());
+        assertEquals(DAY.plusHours(20), index.slots(OPTION).get(4).localDateTimeStart());
+    }
+
+    @Test
+    public void appliesDeltas() {
+        putDay();
+        var changed = slot("14", 14, 16, AvailabilityStatus.SOLD_OUT, 0, 13);
+        var added = slot("10", 10, 12, AvailabilityStatus.AVAILABLE, 4, 9);
+        index.apply(new AvailabilityDelta<>(OPTION, List.of(
+                new SlotChange<>("14", index.slots(OPTION).get(3), changed, true, true),
+                new SlotChange<>("10", null, added, false, false),
+                new SlotChange<>("11", index.slots(OPTION).get(2), null, false, false)
+        )));
+
+        assertEquals(List.of("all-day", "09", "10", "14", "16"), index.slots(OPTION).stream().map(Availability::id).toList());
+        assertEquals(List.of("14"), ids(AvailabilityQuery.all().statuses(AvailabilityStatus.SOLD_OUT)));
+
+        index.apply(new AvailabilityDelta<>("new", List.of(new SlotChange<>("10", null, added, false, false))));
+        assertEquals(List.of(added), index.slots("new"));
+        assertEquals(2, index.size());
+        index.remove("new");
+        assertEquals(1, index.size());
+    }
+}
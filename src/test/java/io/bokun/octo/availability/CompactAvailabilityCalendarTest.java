@@ -0,0 +1,129 @@
+package io.bokun.octo.availability;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import io.bokun.octo.AvailabilityCalendar;
+import io.bokun.octo.AvailabilityStatus;
+import io.bokun.octo.OpeningHours;
+import io.bokun.octo.gson.OctoTypeAdapterFactory;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class CompactAvailabilityCalendarTest {
+    /**
+     * The START_TIMES and OPENING_HOURS examples of /availability/calendar in OCTO-API.yaml, and the schema examples
+     */
+    private static final String START_TIMES = """
+            [{"localDate": "2022-06-14", "available": true, "status": "AVAILABLE", "vacancies": 20, "capacity": 20, "openingHours": []},
+             {"localDate": "2022-06-15", "available": true, "status": "AVAILABLE", "vacancies": 10, "capacity": 10, "openingHours": []},
+             {"localDate": "2022-06-16", "available": true, "status": "AVAILABLE", "vacancies": 10, "capacity": 10, "openingHours": []}]
+            """;
+    private static final String OPENING_HOURS = """
+            [{"localDate": "2022-06-14", "available": true, "status": "FREESALE", "vacancies": null, "capacity": null,
+              "openingHours": [{"from": "09:00", "to": "17:00"}]},
+             {"localDate": "2022-06-15", "available": true, "status": "FREESALE", "vacancies": null, "capacity": null,
+              "openingHours": [{"from": "09:00", "to": "17:00"}]},
+             {"localDate": "2022-06-16", "available": true, "status": "FREESALE", "vacancies": null, "capacity": null,
+              "openingHours": [{"from": "09:00", "to": "17:00"}]}]
+            """;
+    private static final String SCHEMA_EXAMPLES = """
+            [{"localDate": "2022-05-12", "available": false, "status": "CLOSED", "vacancies": 0, "capacity": null,
+              "openingHours": [{"from": "08:00", "to": "18:30"}]},
+             {"localDate": "2022-05-13", "available": true, "status": "AVAILABLE", "vacancies": 10, "capacity": 10,
+              "openingHours": [{"from": "08:00", "to": "16:00"}]}]
+            """;
+
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory()).create();
+
+    private List<AvailabilityCalendar> days(String json) {
+        return gson.fromJson(json, new TypeToken<List<AvailabilityCalendar>>() {
+        }.getType());
+    }
+
+    private static AvailabilityCalendar day(String date, OpeningHours... openingHours) {
+        return new AvailabilityCalendar(LocalDate.parse(date), null, null, null, null, new ArrayList<>(Arrays.asList(openingHours)));
+    }
+
+    @Test
+    public void roundTripsTheSpecExamples() {
+        for (var json : List.of(START_TIMES, OPENING_HOURS, SCHEMA_EXAMPLES)) {
+            var days = days(json);
+            var calendar = CompactAvailabilityCalendar.of(days);
+            assertEquals(days, calendar.toList());
+            assertEquals(gson.toJson(days), gson.toJson(calendar.toList()));
+        }
+    }
+
+    @Test
+    public void readsTheColumnsWithoutRecords() {
+        var calendar = CompactAvailabilityCalendar.of(days(SCHEMA_EXAMPLES));
+
+        int index = calendar.indexOf(LocalDate.of(2022, 5, 12));
+        assertEquals(0, index);
+        assertFalse(calendar.available(index));
+        assertEquals(AvailabilityStatus.CLOSED, calendar.status(index));
+        assertEquals(0, calendar.vacancies(index));
+        assertEquals(CompactAvailabilityCalendar.NO_VALUE, calendar.capacity(index));
+        assertEquals(1, calendar.openingHoursCount(index));
+        assertEquals(8 * 60, calendar.openingMinute(index, 0));
+        assertEquals(18 * 60 + 30, calendar.closingMinute(index, 0));
+        assertTrue(calendar.available(1));
+    }
+
+    @Test
+    public void sortsTheDaysAndFindsRanges() {
+        var days = new ArrayList<>(days(START_TIMES));
+        days.add(days.remove(0));
+        var calendar = CompactAvailabilityCalendar.of(days);
+
+        assertEquals(LocalDate.of(2022, 6, 14), calendar.localDate(0));
+        assertEquals(-1, calendar.indexOf(LocalDate.of(2022, 6, 17)));
+        assertEquals(List.of(LocalDate.of(2022, 6, 15), LocalDate.of(2022, 6, 16)),
+                calendar.between(LocalDate.of(2022, 6, 15), LocalDate.of(2022, 6, 30)).stream().map(AvailabilityCalendar::localDate).toList());
+        assertEquals(List.of(), calendar.between(LocalDate.of(2022, 6, 1), LocalDate.of(2022, 6, 13)));
+        assertEquals(3, calendar.toIndex(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void keepsNullOpeningHours() {
+        var days = List.of(
+                day("2022-06-14", new OpeningHours("09:00", "12:00"), null, new OpeningHours("13:00", "24:00")),
+                day("2022-06-15", new OpeningHours(null, null)),
+                day("2022-06-16", (OpeningHours) null)
+        );
+        var calendar = CompactAvailabilityCalendar.of(days);
+
+        assertEquals(days, calendar.toList());
+        assertEquals(CompactAvailabilityCalendar.NULL_OPENING_HOURS, calendar.openingMinute(0, 1));
+        assertEquals(CompactAvailabilityCalendar.NULL_OPENING_HOURS, calendar.closingMinute(0, 1));
+        assertEquals(-1, calendar.openingMinute(1, 0));
+        assertEquals(24 * 60, calendar.closingMinute(0, 2));
+    }
+
+    @Test
+    public void storesNullListsAsEmpty() {
+        var day = new AvailabilityCalendar(LocalDate.of(2022, 6, 14), true, AvailabilityStatus.AVAILABLE, 1, 1, null);
+        var copy = CompactAvailabilityCalendar.of(List.of(day)).get(0);
+
+        assertEquals(List.of(), copy.openingHours());
+        assertEquals(Integer.valueOf(1), copy.vacancies());
+    }
+
+    @Test
+    public void rejectsInvalidDays() {
+        assertThrows(IllegalArgumentException.class, () -> CompactAvailabilityCalendar.of(List.of(day("2022-06-14", new OpeningHours("9:00", "17:00")))));
+        assertThrows(IllegalArgumentException.class, () -> CompactAvailabilityCalendar.of(List.of(day("2022-06-14", new OpeningHours("09:00", "24:30")))));
+        assertThrows(IllegalArgumentException.class, () -> CompactAvailabilityCalendar.of(List.of(
+                new AvailabilityCalendar(null, true, AvailabilityStatus.AVAILABLE, null, null, new ArrayList<>()))));
+    }
+}
@@ -0,0 +1,174 @@
+package io.bokun.octo.binary;
+
+import io.bokun.octo.ContactField;
+import io.bokun.octo.Unit;
+import io.bokun.octo.UnitRestrictions;
+import io.bokun.octo.UnitType;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class BinaryCodecTest {
+    private static BinaryInput input(BinaryOutput out) {
+        return new BinaryInput(out.buffer(), 0, out.size());
+    }
+
+    private static BinaryInput input(int... bytes) {
+        var buffer = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            buffer[i] = (byte) bytes[i];
+        }
+        return new BinaryInput(buffer, 0, buffer.length);
+    }
+
+    @Test
+    public void varIntsRoundTrip() {
+        int[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, Integer.MIN_VALUE, -1};
+        var out = new BinaryOutput(0);
+        for (int value : values) {
+            out.writeVarInt(value);
+        }
+        var in = input(out);
+        for (int value : values) {
+            assertEquals(value, in.readVarInt());
+        }
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    public void varLongsRoundTrip() {
+        long[] values = {0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        var out = new BinaryOutput(0);
+        for (long value : values) {
+            out.writeVarLong(value);
+            out.writeSignedVarLong(value);
+        }
+        var in = input(out);
+        for (long value : values) {
+            assertEquals(value, in.readVarLong());
+            assertEquals(value, in.readSignedVarLong());
+        }
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    public void smallVarIntsTakeOneByte() {
+        var out = new BinaryOutput(0);
+        out.writeVarInt(127);
+        assertEquals(1, out.size());
+        out.writeSignedVarLong(-64);
+        assertEquals(2, out.size());
+        out.writeVarInt(128);
+        assertEquals(4, out.size());
+        out.writeVarInt(-1);
+        assertEquals(9, out.size());
+    }
+
+    @Test
+    public void rejectsMalformedVarInts() {
+        assertThrows(IllegalArgumentException.class, () -> input(0x80, 0x80).readVarLong());
+        assertThrows(IllegalArgumentException.class, () -> input(0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x80, 0x01).readVarLong());
+        // Doesn't fit in 32 bits
+        assertThrows(IllegalArgumentException.class, () -> input(0x80, 0x80, 0x80, 0x80, 0x10).readVarInt());
+    }
+
+    @Test
+    public void scalarsRoundTrip() {
+        var uuid = UUID.randomUUID();
+        var offset = ZonedDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000, ZoneOffset.ofHoursMinutes(-3, -30));
+        var region = ZonedDateTime.of(2024, 10, 27, 2, 30, 0, 0, ZoneId.of("Europe/London")).withLaterOffsetAtOverlap();
+        var out = new BinaryOutput(0);
+        out.writeString("");
+        out.writeString("ascii");
+        out.writeString("Reykjav\u00edk \u2708 \ud83c\udf0b");
+        out.writeNullableString("element", 1);
+        out.writeVarInt(0);
+        out.writeInteger(-42);
+        out.writeUuid(uuid);
+        out.writeLocalDate(LocalDate.of(1969, 12, 31));
+        out.writeZonedDateTime(offset);
+        out.writeZonedDateTime(region);
+
+        var in = input(out);
+        assertEquals("", in.readString());
+        assertEquals("ascii", in.readString());
+        assertEquals("Reykjav\u00edk \u2708 \ud83c\udf0b", in.readString());
+        assertEquals("element", in.readNullableString());
+        assertNull(in.readNullableString());
+        assertEquals(Integer.valueOf(-42), in.readInteger());
+        assertEquals(uuid, in.readUuid());
+        assertEquals(LocalDate.of(1969, 12, 31), in.readLocalDate());
+        assertEquals(offset, in.readZonedDateTime());
+        assertEquals(region, in.readZonedDateTime());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    public void rejectsTruncatedStrings() {
+        var out = new BinaryOutput(0);
+        out.writeString("truncated");
+        var bytes = Arrays.copyOf(out.toByteArray(), 4);
+        assertThrows(IllegalArgumentException.class, () -> new BinaryInput(bytes, 0, bytes.length).readString());
+    }
+
+    private static Unit unit() {
+        var restrictions = new UnitRestrictions(18, 99, false, null, 10, 1, new ArrayList<>(List.of("ADULT")));
+        var contactFields = new ArrayList<>(Arrays.asList(ContactField.firstName, null, ContactField.lastName));
+        return new Unit("adult", null, "ref", UnitType.ADULT, contactFields, restrictions);
+    }
+
+    @Test
+    public void recordsRoundTrip() {
+        var codec = OctoBinaryCodecs.forType(Unit.class);
+        var unit = unit();
+        assertEquals(unit, codec.decode(codec.encode(unit)));
+        assertNull(codec.decode(codec.encode(null)));
+
+        var listCodec = BinaryCodec.listOf(codec);
+        var units = new ArrayList<>(Arrays.asList(unit, null, unit));
+        assertEquals(units, listCodec.decode(listCodec.encode(units)));
+    }
+
+    @Test
+    public void childrenAreStoredApart() {
+        var codec = OctoBinaryCodecs.forType(Unit.class);
+        var childCodec = OctoBinaryCodecs.forType(ContactField.class);
+        var unit = unit();
+
+        var bytes = codec.encodeWithoutChildren(unit, childCodec);
+        assertEquals(unit, codec.decodeWithChildren(bytes, 0, bytes.length, childCodec, unit.requiredContactFields()));
+
+        var full = codec.encode(unit);
+        assertThrows(IllegalArgumentException.class, () -> codec.decodeWithChildren(full, 0, full.length, childCodec, List.of()));
+    }
+
+    @Test
+    public void rejectsOtherPayloads() {
+        var codec = OctoBinaryCodecs.forType(Unit.class);
+        var bytes = codec.encode(unit());
+
+        var otherVersion = bytes.clone();
+        otherVersion[4] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(otherVersion));
+
+        var trailing = Arrays.copyOf(bytes, bytes.length + 1);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(trailing));
+
+        var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated));
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(new byte[]{1, 2, 3}));
+    }
+}
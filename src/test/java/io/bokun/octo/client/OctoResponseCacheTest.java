@@ -0,0 +1,166 @@
+package io.bokun.octo.client;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class OctoResponseCacheTest {
+    private static final long TTL = Duration.ofSeconds(10).toNanos();
+
+    // Close to the wrap-around, nanoTime values can be negative
+    private final AtomicLong now = new AtomicLong(Long.MAX_VALUE - TTL / 2);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private OctoResponseCache cache(int maximumSize) {
+        return OctoResponseCache.builder()
+                .ttl("GET", "/products", Duration.ofHours(1))
+                .ttl("POST", "/availability", Duration.ofSeconds(10))
+                .maximumSize(maximumSize)
+                .nanoClock(now::get)
+                .build();
+    }
+
+    private Supplier<CompletableFuture<String>> upstream(String value) {
+        return () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture(value);
+        };
+    }
+
+    private String get(OctoResponseCache cache, String path, long ttlNanos) {
+        return cache.get("GET", path, null, ttlNanos, upstream(path + "#" + calls.get())).join();
+    }
+
+    @Test
+    public void picksTheLongestMatchingRule() {
+        var cache = OctoResponseCache.builder()
+                .ttl("GET", "/products", Duration.ofHours(1))
+                .ttl("get", "/products/special", Duration.ofMinutes(1))
+                .build();
+        assertEquals(Duration.ofHours(1).toNanos(), cache.ttlNanos("GET", "/products"));
+        assertEquals(Duration.ofHours(1).toNanos(), cache.ttlNanos("GET", "/products?optionId=DEFAULT"));
+        assertEquals(Duration.ofHours(1).toNanos(), cache.ttlNanos("GET", "/products/other"));
+        assertEquals(Duration.ofMinutes(1).toNanos(), cache.ttlNanos("GET", "/products/special"));
+        assertEquals(-1, cache.ttlNanos("GET", "/productsAndMore"));
+        assertEquals(-1, cache.ttlNanos("POST", "/products"));
+    }
+
+    @Test
+    public void sharesInFlightCalls() {
+        var cache = cache(10);
+        var call = new CompletableFuture<String>();
+        Supplier<CompletableFuture<String>> upstream = () -> {
+            calls.incrementAndGet();
+            return call;
+        };
+
+        var first = cache.get("POST", "/availability", "body", TTL, upstream);
+        var second = cache.get("POST", "/availability", "body", TTL, upstream);
+        var cancelled = cache.get("POST", "/availability", "body", TTL, upstream);
+        assertEquals(1, calls.get());
+
+        cancelled.cancel(true);
+        call.complete("response");
+        assertEquals("response", first.join());
+        assertEquals("response", second.join());
+        assertEquals("response", cache.get("POST", "/availability", "body", TTL, upstream).join());
+        assertEquals(1, calls.get());
+
+        cache.get("POST", "/availability", "other body", TTL, upstream);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void expiresAfterTheTtl() {
+        var cache = cache(10);
+        assertEquals("/products#0", get(cache, "/products", TTL));
+
+        now.addAndGet(TTL - 1);
+        assertEquals("/products#0", get(cache, "/products", TTL));
+        now.incrementAndGet();
+        assertEquals("/products#1", get(cache, "/products", TTL));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void doesntCacheFailures() {
+        var cache = cache(10);
+        Supplier<CompletableFuture<String>> failing = () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("down");
+        };
+
+        var failed = cache.get("GET", "/products", null, TTL, failing);
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(0, cache.size());
+        assertEquals("/products#1", get(cache, "/products", TTL));
+    }
+
+    @Test
+    public void zeroTtlOnlyCoalesces() {
+        var cache = cache(10);
+        get(cache, "/products", 0);
+        get(cache, "/products", 0);
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictsTheEntryClosestToExpiry() {
+        var cache = cache(3);
+        get(cache, "/products/a", TTL);
+        get(cache, "/products/b", TTL * 3);
+        get(cache, "/products/c", TTL * 2);
+        var inFlight = cache.get("GET", "/products/d", null, TTL, CompletableFuture::new);
+        assertEquals(3, cache.size());
+
+        // a was evicted, the others are still cached
+        int before = calls.get();
+        get(cache, "/products/b", TTL);
+        get(cache, "/products/c", TTL);
+        assertEquals(before, calls.get());
+        assertFalse(inFlight.isDone());
+    }
+
+    @Test
+    public void staysBounded() {
+        var cache = cache(50);
+        for (int i = 0; i < 1000; i++) {
+            get(cache, "/products/" + i, TTL + i);
+            assertTrue(cache.size() <= 50);
+            if (i % 100 == 0) {
+                now.addAndGet(TTL);
+            }
+        }
+    }
+
+    @Test
+    public void dropsExpiredEntriesFirst() {
+        var cache = cache(3);
+        get(cache, "/products/a", TTL * 3);
+        get(cache, "/products/b", TTL);
+        get(cache, "/products/c", TTL);
+        now.addAndGet(TTL);
+        get(cache, "/products/d", TTL);
+
+        assertEquals(2, cache.size());
+        int before = calls.get();
+        get(cache, "/products/a", TTL);
+        assertEquals(before, calls.get());
+    }
+
+    @Test
+    public void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> OctoResponseCache.builder().ttl("GET", "/products", Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> OctoResponseCache.builder().maximumSize(0));
+    }
+}
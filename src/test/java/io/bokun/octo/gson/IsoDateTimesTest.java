@@ -0,0 +1,113 @@
+package io.bokun.octo.gson;
+
+import org.junit.Test;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+public class IsoDateTimesTest {
+    private static final LocalDateTime TIME = LocalDateTime.of(2022, 5, 12, 8, 0);
+
+    private static ZonedDateTime at(String offset) {
+        return ZonedDateTime.of(TIME, ZoneOffset.of(offset));
+    }
+
+    @Test
+    public void parsesTheOctoShapes() {
+        assertEquals(at("+01:00"), IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+01:00"));
+        assertEquals(at("+01:00"), IsoDateTimes.parseZonedDateTime("2022-05-12T08:00+01:00"));
+        assertEquals(at("Z"), IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00Z"));
+        assertEquals(at("Z"), IsoDateTimes.parseZonedDateTime("2022-05-12t08:00:00z"));
+        assertEquals(at("-05:30"), IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00-05:30"));
+        assertEquals(at("+01:00"), IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+01"));
+        assertEquals(LocalDate.of(2022, 5, 12), IsoDateTimes.parseLocalDate("2022-05-12"));
+    }
+
+    @Test
+    public void parsesFractions() {
+        assertEquals(500_000_000, IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00.5Z").getNano());
+        assertEquals(123_000_000, IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00.123Z").getNano());
+        assertEquals(123_456_789, IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00.123456789+01:00").getNano());
+        // Like the full formatter, which allows a fraction without digits
+        assertEquals(at("Z"), IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00.Z"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00.1234567890Z"));
+    }
+
+    @Test
+    public void parsesTheOffsetEdges() {
+        assertEquals(ZoneOffset.MAX, IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+18:00").getOffset());
+        assertEquals(ZoneOffset.MIN, IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00-18:00").getOffset());
+        assertSame(ZoneOffset.UTC, IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00-00:00").getOffset());
+        // Not a quarter hour, so not from the cache
+        assertEquals(ZoneOffset.of("+05:47"), IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+05:47").getOffset());
+        assertEquals(ZoneOffset.ofHoursMinutesSeconds(1, 0, 30), IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+01:00:30").getOffset());
+
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+18:01"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+01:60"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+0100"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+1"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00"));
+    }
+
+    @Test
+    public void fallsBackForOtherShapes() {
+        var london = IsoDateTimes.parseZonedDateTime("2022-05-12T08:00:00+01:00[Europe/London]");
+        assertEquals(ZonedDateTime.of(TIME, ZoneId.of("Europe/London")), london);
+        assertEquals("2022-05-12T08:00:00+01:00", IsoDateTimes.formatZonedDateTime(london));
+
+        var farFuture = IsoDateTimes.parseZonedDateTime("+12022-05-12T08:00:00Z");
+        assertEquals(12022, farFuture.getYear());
+        assertEquals("+12022-05-12T08:00:00Z", IsoDateTimes.formatZonedDateTime(farFuture));
+        assertEquals(-1, IsoDateTimes.formatZonedDateTime(farFuture, new byte[IsoDateTimes.MAX_DATE_TIME_LENGTH], 0));
+
+        var farFutureDate = IsoDateTimes.parseLocalDate("+12022-05-12");
+        assertEquals(LocalDate.of(12022, 5, 12), farFutureDate);
+        assertEquals("+12022-05-12", IsoDateTimes.formatLocalDate(farFutureDate));
+    }
+
+    @Test
+    public void rejectsInvalidValues() {
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-02-30T08:00:00Z"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-05-12T24:00:00Z"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseZonedDateTime("2022-05-12 08:00:00Z"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseLocalDate("2022-13-01"));
+        assertThrows(DateTimeException.class, () -> IsoDateTimes.parseLocalDate("2022-5-12"));
+    }
+
+    @Test
+    public void formatsLikeTheJdk() {
+        assertEquals("2022-05-12T08:00:00Z", IsoDateTimes.formatZonedDateTime(at("Z")));
+        assertEquals("2022-05-12T08:00:00-05:30", IsoDateTimes.formatZonedDateTime(at("-05:30")));
+        assertEquals("2022-05-12T08:00:00.5+01:00", IsoDateTimes.formatZonedDateTime(at("+01:00").withNano(500_000_000)));
+        assertEquals("2022-05-12T08:00:00.000001+01:00", IsoDateTimes.formatZonedDateTime(at("+01:00").withNano(1_000)));
+        assertEquals("2022-05-12T08:00:00.123456789+01:00", IsoDateTimes.formatZonedDateTime(at("+01:00").withNano(123_456_789)));
+        assertEquals("0001-01-01", IsoDateTimes.formatLocalDate(LocalDate.of(1, 1, 1)));
+    }
+
+    @Test
+    public void roundTripsRandomValuesLikeTheJdk() {
+        var random = new Random(42);
+        int[] nanoSteps = {1_000_000_000, 100_000_000, 1_000_000, 1_000, 1};
+        for (int i = 0; i < 10_000; i++) {
+            int step = nanoSteps[random.nextInt(nanoSteps.length)];
+            var offset = ZoneOffset.ofTotalSeconds((random.nextInt(2 * 18 * 60 + 1) - 18 * 60) * 60);
+            var value = ZonedDateTime.of(LocalDateTime.of(random.nextInt(10_000), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1_000_000_000) / step * step), offset);
+
+            var expected = DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(value);
+            assertEquals(expected, IsoDateTimes.formatZonedDateTime(value));
+            assertEquals(value, IsoDateTimes.parseZonedDateTime(expected));
+            assertEquals(value.toLocalDate(), IsoDateTimes.parseLocalDate(IsoDateTimes.formatLocalDate(value.toLocalDate())));
+        }
+    }
+}
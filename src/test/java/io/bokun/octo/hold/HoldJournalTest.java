@@ -0,0 +1,128 @@
+package io.bokun.octo.hold;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class HoldJournalTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Hold hold(String supplier, int minutes) {
+        var now = Instant.parse("2024-05-01T10:00:00Z");
+        return new Hold(supplier, UUID.randomUUID(), now.plusSeconds(minutes * 60L), now.plusSeconds(minutes * 120L));
+    }
+
+    private Path file() {
+        return folder.getRoot().toPath().resolve("holds.journal");
+    }
+
+    private static Map<UUID, Hold> replay(Path file) throws IOException {
+        var pending = new LinkedHashMap<UUID, Hold>();
+        HoldJournal.open(file, pending).close();
+        return pending;
+    }
+
+    @Test
+    public void replaysThePendingHoldsInOrder() throws IOException {
+        var first = hold("supplier-a", 10);
+        var second = hold("supplier-\u00fc", 20);
+        var removed = hold("supplier-a", 30);
+        var extended = new Hold(first.supplier(), first.uuid(), first.expiresAt().plusSeconds(600), first.holdUntil());
+
+        try (var journal = HoldJournal.open(file(), new LinkedHashMap<>())) {
+            journal.put(first);
+            journal.put(second);
+            journal.put(removed);
+            journal.remove(removed.uuid());
+            journal.put(extended);
+            journal.flush(List.of(extended, second));
+        }
+
+        var pending = replay(file());
+        assertEquals(List.of(first.uuid(), second.uuid()), List.copyOf(pending.keySet()));
+        assertEquals(extended, pending.get(first.uuid()));
+        assertEquals(second, pending.get(second.uuid()));
+    }
+
+    @Test
+    public void dropsATornLastRecord() throws IOException {
+        var kept = hold("supplier", 10);
+        var torn = hold("supplier", 20);
+        try (var journal = HoldJournal.open(file(), new LinkedHashMap<>())) {
+            journal.put(kept);
+            journal.flush(List.of(kept));
+        }
+        long validLength = Files.size(file());
+        try (var journal = HoldJournal.open(file(), new LinkedHashMap<>())) {
+            journal.put(torn);
+            journal.flush(List.of(kept, torn));
+        }
+        try (var channel = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file()) - 5);
+        }
+
+        assertEquals(Map.of(kept.uuid(), kept), replay(file()));
+        assertEquals(validLength, Files.size(file()));
+
+        // Records appended after the truncation replay
+        var appended = hold("supplier", 30);
+        try (var journal = HoldJournal.open(file(), new LinkedHashMap<>())) {
+            journal.put(appended);
+            journal.flush(List.of(kept, appended));
+        }
+        assertEquals(List.of(kept.uuid(), appended.uuid()), List.copyOf(replay(file()).keySet()));
+    }
+
+    @Test
+    public void compactsObsoleteRecords() throws IOException {
+        var hold = hold("supplier", 10);
+        var pending = new LinkedHashMap<UUID, Hold>();
+        try (var journal = HoldJournal.open(file(), pending)) {
+            for (int i = 0; i < 5000; i++) {
+                hold = new Hold(hold.supplier(), hold.uuid(), hold.expiresAt().plusSeconds(60), hold.holdUntil());
+                journal.put(hold);
+            }
+            long before = Files.size(file());
+            journal.flush(List.of(hold));
+            assertTrue(Files.size(file()) < before);
+        }
+
+        assertEquals(Map.of(hold.uuid(), hold), replay(file()));
+        assertTrue(Files.notExists(file().resolveSibling("holds.journal.next")));
+    }
+
+    @Test
+    public void rejectsOtherFiles() throws IOException {
+        Files.write(file(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        assertThrows(IllegalStateException.class, () -> replay(file()));
+
+        Files.write(file(), new byte[]{1, 2});
+        assertThrows(IllegalStateException.class, () -> replay(file()));
+    }
+
+    @Test
+    public void rejectsCorruptRecords() throws IOException {
+        try (var journal = HoldJournal.open(file(), new LinkedHashMap<>())) {
+            journal.put(hold("supplier", 10));
+            journal.flush(List.of());
+        }
+        Files.write(file(), new byte[]{9, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+        assertThrows(IllegalStateException.class, () -> replay(file()));
+    }
+}
@@ -0,0 +1,366 @@
+package io.bokun.octo.hold;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.bokun.octo.Booking;
+import io.bokun.octo.client.OctoClient;
+import io.bokun.octo.gson.OctoTypeAdapterFactory;
+import io.bokun.octo.requestBody.PostBookingsUuidCancel;
+import io.bokun.octo.requestBody.PostBookingsUuidExtend;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HoldSchedulerTest {
+    private static final Instant START = Instant.parse("2024-05-01T10:00:00Z");
+    private static final String SUPPLIER = "supplier";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory()).create();
+
+    /**
+     * Elapsed fake time in nanos, both clocks of the scheduler follow it
+     */
+    private final AtomicLong elapsed = new AtomicLong();
+    private final BlockingQueue<Call> calls = new LinkedBlockingQueue<>();
+    private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private HoldScheduler scheduler;
+
+    private record Call(String operation, String uuid, CompletableFuture<Booking> response) {
+    }
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return START.plusNanos(elapsed.get());
+        }
+    };
+
+    private final OctoClient client = new OctoClient(null) {
+        @Override
+        public CompletableFuture<Booking> postBookingsUuidExtend(String uuid, PostBookingsUuidExtend body) {
+            var response = new CompletableFuture<Booking>();
+            calls.add(new Call("extend", uuid, response));
+            return response;
+        }
+
+        @Override
+        public CompletableFuture<Booking> postBookingsUuidCancel(String uuid, PostBookingsUuidCancel body) {
+            var response = new CompletableFuture<Booking>();
+            calls.add(new Call("cancel", uuid, response));
+            return response;
+        }
+    };
+
+    private final HoldListener listener = new HoldListener() {
+        @Override
+        public void onExtended(Hold hold, Booking booking) {
+            events.add("extended " + hold.expiresAt());
+        }
+
+        @Override
+        public void onReleased(Hold hold, Booking booking) {
+            events.add("released");
+        }
+
+        @Override
+        public void onEnded(Hold hold, Booking booking) {
+            events.add("ended " + booking.status());
+        }
+
+        @Override
+        public void onExpired(Hold hold) {
+            events.add("expired");
+        }
+
+        @Override
+        public void onFailed(Hold hold, Throwable error) {
+            events.add("failed " + error.getClass().getSimpleName());
+        }
+    };
+
+    private HoldScheduler.Builder builder() {
+        return HoldScheduler.builder((supplier) -> client)
+                .tick(Duration.ofMillis(1))
+                .extendBefore(Duration.ofMinutes(2))
+                .retryAfter(Duration.ofSeconds(15))
+                .listener(listener)
+                .clock(clock)
+                .nanoClock(elapsed::get);
+    }
+
+    @After
+    public void close() throws IOException {
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    private Booking booking(UUID uuid, String status, Duration expiresIn) {
+        return gson.fromJson("{\"uuid\": \"" + uuid + "\", \"status\": \"" + status + "\", \"utcExpiresAt\": \""
+                + START.plus(expiresIn) + "\"}", Booking.class);
+    }
+
+    private static Instant at(Duration elapsed) {
+        return START.plus(elapsed);
+    }
+
+    private void advanceTo(Duration time) {
+        elapsed.set(time.toNanos());
+    }
+
+    private UUID hold(Duration expiresIn, Duration holdFor) {
+        var uuid = UUID.randomUUID();
+        scheduler.hold(SUPPLIER, booking(uuid, "ON_HOLD", expiresIn), at(holdFor));
+        awaitHold(uuid, (hold) -> assertNotNull(hold));
+        return uuid;
+    }
+
+    private Call awaitCall(String operation, UUID uuid) {
+        try {
+            var call = calls.poll(5, TimeUnit.SECONDS);
+            if (call == null) {
+                fail("No " + operation + " call");
+            }
+            assertEquals(operation, call.operation());
+            assertEquals(uuid.toString(), call.uuid());
+            return call;
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void assertNoCall() {
+        try {
+            var call = calls.poll(100, TimeUnit.MILLISECONDS);
+            if (call != null) {
+                fail("Unexpected " + call.operation() + " call");
+            }
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private void awaitEvent(String expected) {
+        try {
+            var event = events.poll(5, TimeUnit.SECONDS);
+            assertEquals(expected, event);
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Waits for the scheduler thread to have processed the commands sent so far
+     */
+    private void awaitHold(UUID uuid, Consumer<Hold> assertion) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                assertion.accept(scheduler.get(uuid));
+                return;
+            } catch (AssertionError e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Test
+    public void extendsBeforeExpiryAndReleasesAtHoldUntil() throws IOException {
+        scheduler = builder().build();
+        var uuid = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+
+        advanceTo(Duration.ofMinutes(7));
+        assertNoCall();
+        advanceTo(Duration.ofMinutes(8));
+        awaitCall("extend", uuid).response().complete(booking(uuid, "ON_HOLD", Duration.ofMinutes(20)));
+        awaitEvent("extended " + at(Duration.ofMinutes(20)));
+        assertEquals(at(Duration.ofMinutes(20)), scheduler.get(uuid).expiresAt());
+
+        advanceTo(Duration.ofMinutes(18));
+        awaitCall("extend", uuid).response().complete(booking(uuid, "ON_HOLD", Duration.ofMinutes(40)));
+        awaitEvent("extended " + at(Duration.ofMinutes(40)));
+
+        // The hold ends before the reservation expires, so the next call is the release
+        advanceTo(Duration.ofMinutes(29));
+        assertNoCall();
+        advanceTo(Duration.ofMinutes(30));
+        awaitCall("cancel", uuid).response().complete(booking(uuid, "CANCELLED", Duration.ofMinutes(40)));
+        awaitEvent("released");
+        assertNull(scheduler.get(uuid));
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void extendsShortReservationsRightAway() throws IOException {
+        scheduler = builder().build();
+        var uuid = hold(Duration.ofMinutes(1), Duration.ofMinutes(30));
+        advanceTo(Duration.ofMillis(1));
+        awaitCall("extend", uuid).response().complete(booking(uuid, "ON_HOLD", Duration.ofSeconds(90)));
+        awaitEvent("extended " + at(Duration.ofSeconds(90)));
+
+        // Extended by less than extendBefore: called again after retryAfter, not every tick
+        advanceTo(Duration.ofMillis(15_000));
+        assertNoCall();
+        advanceTo(Duration.ofMillis(15_001));
+        awaitCall("extend", uuid);
+    }
+
+    @Test
+    public void retriesFailedCalls() throws IOException {
+        scheduler = builder().build();
+        var uuid = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+
+        advanceTo(Duration.ofMinutes(8));
+        awaitCall("extend", uuid).response().completeExceptionally(new IOException("timeout"));
+        awaitEvent("failed IOException");
+
+        advanceTo(Duration.ofMinutes(8).plusSeconds(14));
+        assertNoCall();
+        advanceTo(Duration.ofMinutes(8).plusSeconds(15));
+        awaitCall("extend", uuid).response().complete(null);
+        awaitEvent("failed IllegalStateException");
+
+        advanceTo(Duration.ofMinutes(8).plusSeconds(30));
+        awaitCall("extend", uuid).response().complete(booking(uuid, "ON_HOLD", Duration.ofMinutes(20)));
+        awaitEvent("extended " + at(Duration.ofMinutes(20)));
+    }
+
+    @Test
+    public void expiresWhenCallsKeepFailing() throws IOException {
+        scheduler = builder().retryAfter(Duration.ofMinutes(5)).build();
+        var uuid = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+
+        advanceTo(Duration.ofMinutes(8));
+        awaitCall("extend", uuid).response().completeExceptionally(new IOException("timeout"));
+        awaitEvent("failed IOException");
+
+        // The retry is capped at the expiry, where the hold is dropped without a call
+        advanceTo(Duration.ofMinutes(10));
+        awaitEvent("expired");
+        assertNoCall();
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void releasesAfterTheCallInFlight() throws IOException {
+        scheduler = builder().build();
+        var uuid = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+        advanceTo(Duration.ofMinutes(8));
+        var extension = awaitCall("extend", uuid);
+
+        scheduler.release(uuid);
+        assertNoCall();
+        extension.response().complete(booking(uuid, "ON_HOLD", Duration.ofMinutes(20)));
+        awaitEvent("extended " + at(Duration.ofMinutes(20)));
+        awaitCall("cancel", uuid).response().complete(null);
+        awaitEvent("released");
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void releasesScheduledHoldsRightAway() throws IOException {
+        scheduler = builder().build();
+        var uuid = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+
+        scheduler.release(uuid);
+        awaitCall("cancel", uuid).response().complete(null);
+        awaitEvent("released");
+    }
+
+    @Test
+    public void forgetsQueuedAndInFlightHolds() throws IOException {
+        scheduler = builder().maxConcurrency(1).build();
+        var first = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+        var second = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+        advanceTo(Duration.ofMinutes(8));
+        var extension = awaitCall("extend", first);
+        assertNoCall();
+
+        // The second one waits for the first call to complete
+        scheduler.forget(second);
+        scheduler.forget(first);
+        awaitHold(first, (hold) -> assertNull(hold));
+        extension.response().complete(booking(first, "ON_HOLD", Duration.ofMinutes(20)));
+        assertNoCall();
+        assertTrue(events.isEmpty());
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void endsHoldsNoLongerOnHold() throws IOException {
+        scheduler = builder().build();
+        var uuid = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+        advanceTo(Duration.ofMinutes(8));
+        awaitCall("extend", uuid).response().complete(booking(uuid, "CONFIRMED", Duration.ofMinutes(20)));
+        awaitEvent("ended CONFIRMED");
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void keepsHoldingWhenTheListenerFails() throws IOException {
+        scheduler = builder().listener(new HoldListener() {
+            @Override
+            public void onExtended(Hold hold, Booking booking) {
+                throw new IllegalStateException("listener");
+            }
+        }).build();
+        var uuid = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+        advanceTo(Duration.ofMinutes(8));
+        awaitCall("extend", uuid).response().complete(booking(uuid, "ON_HOLD", Duration.ofMinutes(20)));
+        awaitHold(uuid, (hold) -> assertEquals(at(Duration.ofMinutes(20)), hold.expiresAt()));
+
+        advanceTo(Duration.ofMinutes(18));
+        awaitCall("extend", uuid);
+    }
+
+    @Test
+    public void resumesFromTheJournal() throws IOException {
+        var journal = folder.getRoot().toPath().resolve("holds.journal");
+        scheduler = builder().journal(journal).build();
+        var uuid = hold(Duration.ofMinutes(10), Duration.ofMinutes(30));
+        var hold = scheduler.get(uuid);
+        scheduler.close();
+
+        scheduler = builder().journal(journal).build();
+        awaitHold(uuid, (resumed) -> assertEquals(hold, resumed));
+        advanceTo(Duration.ofMinutes(8));
+        awaitCall("extend", uuid);
+    }
+}
@@ -0,0 +1,123 @@
+package io.bokun.octo.hold;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+    private final List<String> expired = new ArrayList<>();
+    private final List<Long> expiredAt = new ArrayList<>();
+
+    private void advance(TimingWheel<String> wheel, long tick) {
+        wheel.advance(tick, (timer) -> {
+            expired.add(timer.value);
+            expiredAt.add(wheel.currentTick());
+        });
+    }
+
+    @Test
+    public void expiresTimersOnTheirDeadline() {
+        var wheel = new TimingWheel<String>(0);
+        wheel.schedule(new TimingWheel.Timer<>("b"), 5);
+        wheel.schedule(new TimingWheel.Timer<>("a"), 3);
+        assertEquals(2, wheel.size());
+
+        advance(wheel, 4);
+        assertEquals(List.of("a"), expired);
+        assertEquals(List.of(3L), expiredAt);
+
+        advance(wheel, 5);
+        assertEquals(List.of("a", "b"), expired);
+        assertEquals(List.of(3L, 5L), expiredAt);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cascadesTimersDownTheLevels() {
+        var wheel = new TimingWheel<String>(10);
+        long[] deadlines = {
+                10 + TimingWheel.SLOTS,
+                10 + TimingWheel.SLOTS * 3 + 7,
+                10 + TimingWheel.SLOTS * TimingWheel.SLOTS + 1,
+                10 + (long) TimingWheel.SLOTS * TimingWheel.SLOTS * TimingWheel.SLOTS * 2 + 5,
+        };
+        for (int i = deadlines.length - 1; i >= 0; i--) {
+            wheel.schedule(new TimingWheel.Timer<>("t" + i), deadlines[i]);
+        }
+
+        advance(wheel, deadlines[deadlines.length - 1]);
+        assertEquals(List.of("t0", "t1", "t2", "t3"), expired);
+        for (int i = 0; i < deadlines.length; i++) {
+            assertEquals(deadlines[i], (long) expiredAt.get(i));
+        }
+    }
+
+    @Test
+    public void keepsTimersBeyondTheTopLevel() {
+        var wheel = new TimingWheel<String>(0);
+        var far = new TimingWheel.Timer<>("far");
+        wheel.schedule(far, (1L << (TimingWheel.LEVELS * TimingWheel.SLOT_BITS)) + 100);
+
+        advance(wheel, (long) TimingWheel.SLOTS * TimingWheel.SLOTS * TimingWheel.SLOTS);
+        assertTrue(expired.isEmpty());
+        assertTrue(far.isScheduled());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void expiresPastDeadlinesOnTheNextTick() {
+        var wheel = new TimingWheel<String>(100);
+        wheel.schedule(new TimingWheel.Timer<>("late"), 50);
+
+        advance(wheel, 101);
+        assertEquals(List.of(101L), expiredAt);
+    }
+
+    @Test
+    public void cancelledTimersDontExpire() {
+        var wheel = new TimingWheel<String>(0);
+        var cancelled = new TimingWheel.Timer<>("cancelled");
+        wheel.schedule(cancelled, 200);
+        wheel.schedule(new TimingWheel.Timer<>("kept"), 300);
+
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+        assertFalse(cancelled.isScheduled());
+        assertEquals(1, wheel.size());
+
+        advance(wheel, 1000);
+        assertEquals(List.of("kept"), expired);
+    }
+
+    @Test
+    public void reschedulingMovesTheTimer() {
+        var wheel = new TimingWheel<String>(0);
+        var timer = new TimingWheel.Timer<>("moved");
+        wheel.schedule(timer, 10);
+        wheel.schedule(timer, 5000);
+        assertEquals(1, wheel.size());
+
+        advance(wheel, 4999);
+        assertTrue(expired.isEmpty());
+        advance(wheel, 5000);
+        assertEquals(List.of(5000L), expiredAt);
+    }
+
+    @Test
+    public void timersCanBeScheduledAgainWhenExpiring() {
+        var wheel = new TimingWheel<String>(0);
+        wheel.schedule(new TimingWheel.Timer<>("repeating"), 10);
+
+        wheel.advance(100, (timer) -> {
+            expiredAt.add(wheel.currentTick());
+            wheel.schedule(timer, wheel.currentTick() + 10);
+        });
+        assertEquals(List.of(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L), expiredAt);
+        assertEquals(1, wheel.size());
+    }
+}
@@ -0,0 +1,105 @@
+package io.bokun.octo.server;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import io.bokun.octo.Booking;
+import io.bokun.octo.gson.OctoTypeAdapterFactory;
+import io.bokun.octo.requestBody.PostBookings;
+import io.bokun.octo.requestBody.PostBookingsUuidCancel;
+import io.bokun.octo.requestBody.PostBookingsUuidExtend;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+public class OctoDispatcherTest {
+    private static final String UUID = "3b1bc2ee-3155-4738-9471-f49842a07327";
+
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory()).create();
+    private final List<Object> calls = new ArrayList<>();
+
+    private final OctoDispatcher dispatcher = new OctoDispatcher(new OctoService() {
+        @Override
+        public Booking postBookingsUuidCancel(String uuid, PostBookingsUuidCancel body) {
+            calls.add(uuid);
+            calls.add(body);
+            return booking("CANCELLED");
+        }
+
+        @Override
+        public Booking postBookingsUuidExtend(String uuid, PostBookingsUuidExtend body) {
+            calls.add(uuid);
+            calls.add(body);
+            return booking("ON_HOLD");
+        }
+    });
+
+    private Booking booking(String status) {
+        return gson.fromJson("{\"uuid\": \"" + UUID + "\", \"status\": \"" + status + "\"}", Booking.class);
+    }
+
+    private JsonObject json(OctoResponse response) {
+        return gson.fromJson(new String(response.body(), StandardCharsets.UTF_8), JsonObject.class);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void cancelsWithoutABody() {
+        var response = dispatcher.dispatch("POST", "/bookings/" + UUID + "/cancel", null);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("CANCELLED", json(response).get("status").getAsString());
+        assertEquals(UUID, calls.get(0));
+        assertNull(calls.get(1));
+    }
+
+    @Test
+    public void extendsWithAnEmptyOrNullBody() {
+        assertEquals(200, dispatcher.dispatch("POST", "/bookings/" + UUID + "/extend", new byte[0]).statusCode());
+        assertEquals(200, dispatcher.dispatch("POST", "/bookings/" + UUID + "/extend", bytes("null")).statusCode());
+        assertEquals(4, calls.size());
+        assertNull(calls.get(1));
+        assertNull(calls.get(3));
+    }
+
+    @Test
+    public void bindsTheBody() {
+        var response = dispatcher.dispatch("POST", "/bookings/a%2Fb/cancel", bytes("{\"reason\": \"Weather\", \"force\": true}"));
+
+        assertEquals(200, response.statusCode());
+        assertEquals("a/b", calls.get(0));
+        assertEquals(new PostBookingsUuidCancel("Weather", true), calls.get(1));
+    }
+
+    @Test
+    public void rejectsMalformedBodies() {
+        var response = dispatcher.dispatch("POST", "/bookings/" + UUID + "/cancel", bytes("{\"force\": "));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("BAD_REQUEST", json(response).get("error").getAsString());
+        assertEquals(List.of(), calls);
+    }
+
+    @Test
+    public void answersUnknownAndUnimplementedRoutes() {
+        assertEquals(404, dispatcher.dispatch("POST", "/bookings/" + UUID + "/refund", null).statusCode());
+        assertEquals(405, dispatcher.dispatch("DELETE", "/bookings/" + UUID + "/cancel", null).statusCode());
+        assertEquals(501, dispatcher.dispatch("GET", "/products", null).statusCode());
+    }
+
+    @Test
+    public void rejectsMissingRequiredBodies() {
+        var exception = assertThrows(OctoServiceException.class, () -> Requests.body(gson, new byte[0], PostBookings.class, true));
+        assertEquals(400, exception.getStatusCode());
+        assertNull(Requests.body(gson, null, PostBookings.class, false));
+    }
+}
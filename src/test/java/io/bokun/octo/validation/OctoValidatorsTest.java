@@ -0,0 +1,67 @@
+package io.bokun.octo.validation;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.bokun.octo.Availability;
+import io.bokun.octo.gson.OctoTypeAdapterFactory;
+import io.bokun.octo.gson.UnknownEnumValues;
+import io.bokun.octo.requestBody.PostBookings;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class OctoValidatorsTest {
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new OctoTypeAdapterFactory()).create();
+
+    @Test
+    public void acceptsAValidReservation() {
+        var body = gson.fromJson("""
+                {"productId": "p", "optionId": "DEFAULT", "availabilityId": "2024-05-01T00:00:00+02:00",
+                 "unitItems": [{"unitId": "adult"}, {"unitId": "child"}]}
+                """, PostBookings.class);
+        assertEquals(List.of(), OctoValidators.validate(body));
+    }
+
+    @Test
+    public void requiresTheUnitItemsOfAReservation() {
+        var body = gson.fromJson("""
+                {"productId": "p", "optionId": "DEFAULT", "availabilityId": "2024-05-01T00:00:00+02:00"}
+                """, PostBookings.class);
+        assertEquals(List.of(new Violation("$.unitItems", "is required")), OctoValidators.validate(body));
+    }
+
+    @Test
+    public void checksNestedRecordsAndListElements() {
+        var body = gson.fromJson("""
+                {"optionId": "DEFAULT", "unitItems": [{"unitId": "adult"}, null, {"uuid": "3b1bc2ee-3155-4738-9471-f49842a07327"}]}
+                """, PostBookings.class);
+        assertEquals(List.of(
+                new Violation("$.productId", "is required"),
+                new Violation("$.unitItems[1]", "must not be null"),
+                new Violation("$.unitItems[2].unitId", "is required")
+        ), OctoValidators.validate(body));
+    }
+
+    @Test
+    public void reportsUnknownEnumValuesInsteadOfMissingOnes() {
+        try (var unknownEnumValues = UnknownEnumValues.record()) {
+            var availability = gson.fromJson("""
+                    {"id": "2024-05-01T00:00:00+02:00", "status": "OVERBOOKED"}
+                    """, Availability.class);
+            var violations = OctoValidators.validate(availability, unknownEnumValues);
+            assertEquals(new Violation("$.status", "is not a known value: OVERBOOKED"), violations.get(0));
+            assertFalse(violations.contains(new Violation("$.status", "is required")));
+            assertTrue(violations.contains(new Violation("$.available", "is required")));
+        }
+    }
+
+    @Test
+    public void rejectsOtherTypes() {
+        assertThrows(IllegalArgumentException.class, () -> OctoValidators.validate("not a DTO"));
+    }
+}